@@ -0,0 +1,38 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.combobox.test;
+
+import java.util.stream.IntStream;
+
+import com.vaadin.flow.component.combobox.ComboBox;
+import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.router.Route;
+
+@Route("apply-update")
+public class ApplyUpdatePage extends Div {
+
+    public ApplyUpdatePage() {
+        ComboBox<String> comboBox = new ComboBox<>();
+        comboBox.setDataProvider(
+                (filter, offset, limit) -> IntStream
+                        .range(offset, Math.min(offset + limit, 500))
+                        .mapToObj(i -> "Item " + i)
+                        .filter(item -> item.contains(filter)),
+                filter -> filter.isEmpty() ? 500 : 0);
+        comboBox.setId("combo");
+        add(comboBox);
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.combobox.test;
+
+import com.vaadin.flow.component.combobox.ComboBox;
+import com.vaadin.flow.component.combobox.bean.SimpleBean;
+import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.component.html.NativeButton;
+import com.vaadin.flow.router.Route;
+
+@Route("client-side-filter-labels")
+public class ClientSideFilterLabelsPage extends Div {
+
+    public ClientSideFilterLabelsPage() {
+        SimpleBean cherry = new SimpleBean("Cherry pie");
+
+        ComboBox<SimpleBean> comboBox = new ComboBox<>();
+        comboBox.setItemLabelGenerator(SimpleBean::getName);
+        comboBox.setItems(new SimpleBean("Apple"), new SimpleBean("BANANA"),
+                cherry, new SimpleBean("apricot"));
+        comboBox.setId("combo");
+
+        NativeButton button = new NativeButton("Rename the cherry pie", e -> {
+            cherry.setName("Cherry APPLE pie");
+            comboBox.getDataProvider().refreshItem(cherry);
+        });
+        button.setId("rename");
+
+        add(comboBox, button);
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.combobox.test;
+
+import java.util.stream.IntStream;
+
+import com.vaadin.flow.component.combobox.ComboBox;
+import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.router.Route;
+
+@Route("page-cache")
+public class PageCachePage extends Div {
+
+    private int fetchCount;
+
+    public PageCachePage() {
+        Span fetches = new Span("0");
+        fetches.setId("fetch-count");
+
+        ComboBox<String> comboBox = new ComboBox<>();
+        comboBox.setDataProvider((filter, offset, limit) -> {
+            fetches.setText(String.valueOf(++fetchCount));
+            return IntStream.range(offset, Math.min(offset + limit, 1000))
+                    .mapToObj(i -> "Item " + i);
+        }, filter -> 1000);
+        comboBox.setId("combo");
+
+        add(comboBox, fetches);
+    }
+}
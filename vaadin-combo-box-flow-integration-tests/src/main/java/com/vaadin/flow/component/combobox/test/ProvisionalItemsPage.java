@@ -0,0 +1,58 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.combobox.test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.vaadin.flow.component.combobox.ComboBox;
+import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.router.Route;
+
+@Route("provisional-items")
+public class ProvisionalItemsPage extends Div {
+
+    /**
+     * Delay of the fetches for filters of three or more characters, so that
+     * the items shown while waiting can be checked.
+     */
+    static final int SLOW_FETCH_DELAY = 3000;
+
+    private final List<String> items = Arrays.asList("ab1", "ab2", "abc1",
+            "abc2", "abd", "xyz");
+
+    public ProvisionalItemsPage() {
+        ComboBox<String> comboBox = new ComboBox<>();
+        comboBox.setDataProvider((filter, offset, limit) -> {
+            if (filter.length() >= 3) {
+                try {
+                    Thread.sleep(SLOW_FETCH_DELAY);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return filter(filter).skip(offset).limit(limit);
+        }, filter -> (int) filter(filter).count());
+        comboBox.setId("combo");
+
+        add(comboBox);
+    }
+
+    private Stream<String> filter(String filter) {
+        return items.stream().filter(item -> item.contains(filter));
+    }
+}
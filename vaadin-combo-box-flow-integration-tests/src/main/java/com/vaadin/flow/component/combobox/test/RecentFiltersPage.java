@@ -0,0 +1,64 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.combobox.test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import com.vaadin.flow.component.combobox.ComboBox;
+import com.vaadin.flow.component.combobox.bean.SimpleBean;
+import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.component.html.NativeButton;
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.router.Route;
+
+@Route("recent-filters")
+public class RecentFiltersPage extends Div {
+
+    private final List<SimpleBean> items = IntStream.range(0, 300)
+            .mapToObj(i -> new SimpleBean("Item " + i))
+            .collect(Collectors.toList());
+
+    private int fetchCount;
+
+    public RecentFiltersPage() {
+        Span fetches = new Span("0");
+        fetches.setId("fetch-count");
+
+        ComboBox<SimpleBean> comboBox = new ComboBox<>();
+        comboBox.setItemLabelGenerator(SimpleBean::getName);
+        comboBox.setDataProvider((filter, offset, limit) -> {
+            fetches.setText(String.valueOf(++fetchCount));
+            return filter(filter).skip(offset).limit(limit);
+        }, filter -> (int) filter(filter).count());
+        comboBox.setId("combo");
+
+        NativeButton rename = new NativeButton("Rename item 12", e -> {
+            SimpleBean item = items.get(12);
+            item.setName("Item 12 renamed");
+            comboBox.getDataProvider().refreshItem(item);
+        });
+        rename.setId("rename");
+
+        add(comboBox, fetches, rename);
+    }
+
+    private Stream<SimpleBean> filter(String filter) {
+        return items.stream().filter(item -> item.getName().contains(filter));
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.combobox.test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.vaadin.flow.component.combobox.ComboBox;
+import com.vaadin.flow.component.combobox.bean.SimpleBean;
+import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.component.html.NativeButton;
+import com.vaadin.flow.router.Route;
+
+@Route("refresh-lazy-item")
+public class RefreshLazyItemPage extends Div {
+
+    public RefreshLazyItemPage() {
+        List<SimpleBean> items = IntStream.range(0, 200)
+                .mapToObj(i -> new SimpleBean("Item " + i))
+                .collect(Collectors.toList());
+
+        ComboBox<SimpleBean> comboBox = new ComboBox<>();
+        comboBox.setItemLabelGenerator(SimpleBean::getName);
+        comboBox.setDataProvider(
+                (filter, offset, limit) -> items.stream()
+                        .filter(item -> item.getName().contains(filter))
+                        .skip(offset).limit(limit),
+                filter -> (int) items.stream()
+                        .filter(item -> item.getName().contains(filter))
+                        .count());
+        comboBox.setId("combo");
+
+        NativeButton button = new NativeButton("Update item 120", e -> {
+            SimpleBean item = items.get(120);
+            item.setName("Item 120 updated");
+            comboBox.getDataProvider().refreshItem(item);
+        });
+        button.setId("refresh-item");
+
+        add(comboBox, button);
+    }
+}
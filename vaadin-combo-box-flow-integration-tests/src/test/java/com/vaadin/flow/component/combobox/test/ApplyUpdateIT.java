@@ -0,0 +1,67 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.combobox.test;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.flow.component.combobox.testbench.ComboBoxElement;
+import com.vaadin.flow.testutil.TestPath;
+
+@TestPath("apply-update")
+public class ApplyUpdateIT extends AbstractComboBoxIT {
+
+    private ComboBoxElement comboBox;
+
+    @Before
+    public void init() {
+        open();
+        comboBox = $(ComboBoxElement.class).id("combo");
+        executeScript("const comboBox = arguments[0];"
+                + "comboBox._applyUpdateCalls = 0;"
+                + "comboBox._setCalls = 0;"
+                + "const applyUpdate = comboBox.$connector.applyUpdate;"
+                + "comboBox.$connector.applyUpdate = function() {"
+                + "  comboBox._applyUpdateCalls++;"
+                + "  return applyUpdate.apply(this, arguments);};"
+                + "const set = comboBox.$connector.set;"
+                + "comboBox.$connector.set = function() {"
+                + "  comboBox._setCalls++;"
+                + "  return set.apply(this, arguments);};", comboBox);
+    }
+
+    @Test
+    public void openAndScroll_itemsAreSentInApplyUpdateCalls() {
+        comboBox.openPopup();
+        waitForItems(comboBox, items -> items.size() == 500
+                && "Item 0".equals(getItemLabel(items, 0)));
+
+        scrollToItem(comboBox, 300);
+        waitUntilTextInContent("Item 300");
+
+        Assert.assertTrue("The items should be sent with applyUpdate",
+                getCallCount("_applyUpdateCalls") > 0);
+        Assert.assertEquals(
+                "The server should not send the items range by range", 0,
+                getCallCount("_setCalls"));
+    }
+
+    private long getCallCount(String property) {
+        return ((Number) executeScript("return arguments[0][arguments[1]];",
+                comboBox, property)).longValue();
+    }
+}
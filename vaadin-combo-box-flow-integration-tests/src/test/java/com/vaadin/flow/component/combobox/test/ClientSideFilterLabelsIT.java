@@ -0,0 +1,65 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.combobox.test;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.flow.component.combobox.testbench.ComboBoxElement;
+import com.vaadin.flow.testutil.TestPath;
+
+@TestPath("client-side-filter-labels")
+public class ClientSideFilterLabelsIT extends AbstractComboBoxIT {
+
+    private ComboBoxElement comboBox;
+
+    @Before
+    public void init() {
+        open();
+        comboBox = $(ComboBoxElement.class).id("combo");
+    }
+
+    @Test
+    public void filter_matchesLabelsIgnoringCase() {
+        comboBox.setFilter("AP");
+        waitForItems(comboBox,
+                items -> items.size() == 2
+                        && "Apple".equals(getItemLabel(items, 0))
+                        && "apricot".equals(getItemLabel(items, 1)));
+
+        comboBox.setFilter("nana");
+        waitForItems(comboBox, items -> items.size() == 1
+                && "BANANA".equals(getItemLabel(items, 0)));
+    }
+
+    @Test
+    public void refreshItem_filterMatchesNewLabel() {
+        comboBox.setFilter("apple");
+        waitForItems(comboBox, items -> items.size() == 1);
+        comboBox.closePopup();
+
+        clickButton("rename");
+        comboBox.setFilter("");
+        waitForItems(comboBox, items -> items.size() == 4
+                && "Cherry APPLE pie".equals(getItemLabel(items, 2)));
+
+        comboBox.setFilter("apple");
+        waitForItems(comboBox,
+                items -> items.size() == 2
+                        && "Apple".equals(getItemLabel(items, 0))
+                        && "Cherry APPLE pie".equals(getItemLabel(items, 1)));
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.combobox.test;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.flow.component.combobox.testbench.ComboBoxElement;
+import com.vaadin.flow.testutil.TestPath;
+
+@TestPath("page-cache")
+public class PageCacheIT extends AbstractComboBoxIT {
+
+    private ComboBoxElement comboBox;
+
+    @Before
+    public void init() {
+        open();
+        comboBox = $(ComboBoxElement.class).id("combo");
+    }
+
+    @Test
+    public void scrollBackWithinBudget_pagesAreNotFetchedAgain() {
+        comboBox.openPopup();
+        waitUntilTextInContent("Item 0");
+        scrollToItem(comboBox, 300);
+        waitUntilTextInContent("Item 300");
+        String fetchCount = getFetchCount();
+
+        scrollToItem(comboBox, 0);
+        waitUntilTextInContent("Item 0");
+        waitForItems(comboBox, items -> "Item 0".equals(getItemLabel(items, 0))
+                && "Item 300".equals(getItemLabel(items, 300)));
+        Assert.assertEquals("The pages should be served from the cache",
+                fetchCount, getFetchCount());
+    }
+
+    private String getFetchCount() {
+        return $("span").id("fetch-count").getText();
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.combobox.test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.flow.component.combobox.testbench.ComboBoxElement;
+import com.vaadin.flow.testutil.TestPath;
+
+@TestPath("provisional-items")
+public class ProvisionalItemsIT extends AbstractComboBoxIT {
+
+    private ComboBoxElement comboBox;
+
+    @Before
+    public void init() {
+        open();
+        comboBox = $(ComboBoxElement.class).id("combo");
+    }
+
+    @Test
+    public void refineFilter_matchingItemsAreShownBeforeFetchCompletes() {
+        comboBox.setFilter("ab");
+        waitForItems(comboBox, items -> items.size() == 5);
+
+        // Not using setFilter, which waits until the loading is done
+        comboBox.openPopup();
+        executeScript("arguments[0].filter = 'abc'", comboBox);
+
+        // Well within the delay of the fetch for 'abc'
+        waitUntil(driver -> {
+            List<?> provisional = (List<?>) executeScript(
+                    "return arguments[0].filteredItems", comboBox);
+            return provisional.size() == 2
+                    && "abc1".equals(getItemLabel(provisional, 0))
+                    && "abc2".equals(getItemLabel(provisional, 1));
+        }, 1);
+        Assert.assertTrue("The items for 'abc' should still be loading",
+                comboBox.getPropertyBoolean("loading"));
+
+        assertLoadingStateResolved(comboBox);
+        List<?> items = (List<?>) executeScript(
+                "return arguments[0].filteredItems", comboBox);
+        Assert.assertEquals(Arrays.asList("abc1", "abc2"),
+                IntStream.range(0, items.size())
+                        .mapToObj(i -> getItemLabel(items, i))
+                        .collect(Collectors.toList()));
+    }
+}
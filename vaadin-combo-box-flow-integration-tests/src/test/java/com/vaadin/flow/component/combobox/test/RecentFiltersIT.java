@@ -0,0 +1,85 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.combobox.test;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.flow.component.combobox.testbench.ComboBoxElement;
+import com.vaadin.flow.testutil.TestPath;
+
+@TestPath("recent-filters")
+public class RecentFiltersIT extends AbstractComboBoxIT {
+
+    private ComboBoxElement comboBox;
+
+    @Before
+    public void init() {
+        open();
+        comboBox = $(ComboBoxElement.class).id("combo");
+    }
+
+    @Test
+    public void returnToRecentFilter_itemsAreShownWithoutFetching() {
+        comboBox.setFilter("1");
+        waitForItems(comboBox, items -> items.size() == 138
+                && "Item 1".equals(getItemLabel(items, 0)));
+        comboBox.setFilter("12");
+        waitForItems(comboBox, items -> items.size() == 13
+                && "Item 12".equals(getItemLabel(items, 0)));
+        String fetchCount = getFetchCount();
+
+        // As when pressing backspace
+        comboBox.setFilter("1");
+        waitForItems(comboBox, items -> items.size() == 138
+                && "Item 1".equals(getItemLabel(items, 0)));
+        Assert.assertEquals("The items of the recent filter should be reused",
+                fetchCount, getFetchCount());
+
+        comboBox.setFilter("2");
+        waitForItems(comboBox, items -> items.size() == 138
+                && "Item 2".equals(getItemLabel(items, 0)));
+        Assert.assertNotEquals("A new filter should be fetched", fetchCount,
+                getFetchCount());
+    }
+
+    @Test
+    public void refreshItem_recentFilterShowsRefreshedItem() {
+        comboBox.setFilter("1");
+        waitForItems(comboBox, items -> items.size() == 138
+                && "Item 12".equals(getItemLabel(items, 3)));
+        comboBox.setFilter("12");
+        waitForItems(comboBox, items -> items.size() == 13
+                && "Item 12".equals(getItemLabel(items, 0)));
+        comboBox.closePopup();
+
+        clickButton("rename");
+        waitForItems(comboBox, items -> "Item 12 renamed"
+                .equals(getItemLabel(items, 0)));
+        String fetchCount = getFetchCount();
+
+        comboBox.setFilter("1");
+        waitForItems(comboBox, items -> items.size() == 138
+                && "Item 12 renamed".equals(getItemLabel(items, 3)));
+        Assert.assertEquals("The items of the recent filter should be reused",
+                fetchCount, getFetchCount());
+    }
+
+    private String getFetchCount() {
+        return $("span").id("fetch-count").getText();
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.combobox.test;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.flow.component.combobox.testbench.ComboBoxElement;
+import com.vaadin.flow.testutil.TestPath;
+
+@TestPath("refresh-lazy-item")
+public class RefreshLazyItemIT extends AbstractComboBoxIT {
+
+    private ComboBoxElement comboBox;
+
+    @Before
+    public void init() {
+        open();
+        comboBox = $(ComboBoxElement.class).id("combo");
+    }
+
+    @Test
+    public void refreshItemOfLaterPage_itemIsUpdatedInPlace() {
+        comboBox.openPopup();
+        scrollToItem(comboBox, 120);
+        waitForItems(comboBox,
+                items -> items.size() == 200 && items.get(120) != null
+                        && "Item 120".equals(getItemLabel(items, 120)));
+
+        clickButton("refresh-item");
+
+        waitForItems(comboBox,
+                items -> "Item 120 updated".equals(getItemLabel(items, 120))
+                        && "Item 0".equals(getItemLabel(items, 0))
+                        && "Item 121".equals(getItemLabel(items, 121)));
+    }
+}
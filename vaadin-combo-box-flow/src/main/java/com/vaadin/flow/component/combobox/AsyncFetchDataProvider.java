@@ -0,0 +1,201 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.combobox;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.DataProviderWrapper;
+import com.vaadin.flow.data.provider.Query;
+
+/**
+ * Data provider wrapper used by {@link ComboBox} when a fetch executor is set.
+ * <p>
+ * The size and the items of a requested range are loaded in the executor,
+ * without holding the session lock, and stored with {@link #store(Loaded)}
+ * once the session is locked again. The data communicator is then served from
+ * the stored range. Queries which are not covered by the stored range are
+ * delegated to the wrapped data provider as usual.
+ *
+ * @param <T>
+ *            the type of the items
+ * @author Vaadin Ltd
+ */
+class AsyncFetchDataProvider<T> extends DataProviderWrapper<T, String, String> {
+
+    private Loaded<T> loaded;
+    private boolean sizeEstimated;
+
+    /**
+     * Creates a new wrapper for the given data provider.
+     *
+     * @param dataProvider
+     *            the data provider to load the items from, not
+     *            <code>null</code>
+     */
+    AsyncFetchDataProvider(DataProvider<T, String> dataProvider) {
+        super(Objects.requireNonNull(dataProvider));
+    }
+
+    /**
+     * Sets whether the size of the wrapped data provider is an estimate which
+     * may grow as items are fetched. An estimated size is queried again after
+     * each fetch instead of being kept for the filter.
+     *
+     * @param sizeEstimated
+     *            {@code true} if the size is an estimate, {@code false} if
+     *            it's exact
+     */
+    void setSizeEstimated(boolean sizeEstimated) {
+        this.sizeEstimated = sizeEstimated;
+    }
+
+    /**
+     * Checks whether the given range of items matching the filter has been
+     * loaded.
+     *
+     * @param filter
+     *            the filter string, may be <code>null</code>
+     * @param offset
+     *            the index of the first item
+     * @param limit
+     *            the number of items
+     * @return {@code true} if the range can be served without querying the
+     *         wrapped data provider, {@code false} otherwise
+     */
+    boolean isLoaded(String filter, int offset, int limit) {
+        return loaded != null && loaded.covers(filter, offset, limit);
+    }
+
+    /**
+     * Loads the size and the given range of items matching the filter in the
+     * given executor. An exact size is only queried if it's not already known
+     * for the filter.
+     * <p>
+     * This method must be called while holding the session lock, while the
+     * data provider is queried in the executor.
+     *
+     * @param filter
+     *            the filter string, may be <code>null</code>
+     * @param offset
+     *            the index of the first item
+     * @param limit
+     *            the number of items
+     * @param executor
+     *            the executor to query the data provider in, not
+     *            <code>null</code>
+     * @return a future completed with the loaded data
+     */
+    CompletableFuture<Loaded<T>> load(String filter, int offset, int limit,
+            Executor executor) {
+        int knownSize = !sizeEstimated && loaded != null
+                && Objects.equals(filter, loaded.filter) ? loaded.size : -1;
+        return CompletableFuture.supplyAsync(() -> {
+            int size = knownSize >= 0 ? knownSize
+                    : dataProvider.size(new Query<>(filter));
+            List<T> items = dataProvider
+                    .fetch(new Query<>(offset, limit, Collections.emptyList(),
+                            null, filter))
+                    .collect(Collectors.toList());
+            if (sizeEstimated) {
+                // The estimate is extended by the fetched items
+                size = dataProvider.size(new Query<>(filter));
+            }
+            return new Loaded<>(filter, size, offset, items);
+        }, executor);
+    }
+
+    /**
+     * Stores loaded data, replacing any previously loaded data.
+     *
+     * @param data
+     *            the loaded data, not <code>null</code>
+     */
+    void store(Loaded<T> data) {
+        loaded = data;
+    }
+
+    /**
+     * Discards the loaded data.
+     */
+    void clear() {
+        loaded = null;
+    }
+
+    @Override
+    protected String getFilter(Query<T, String> query) {
+        return query.getFilter().orElse(null);
+    }
+
+    @Override
+    public int size(Query<T, String> query) {
+        if (!sizeEstimated && loaded != null
+                && Objects.equals(getFilter(query), loaded.filter)) {
+            return loaded.size;
+        }
+        return super.size(query);
+    }
+
+    @Override
+    public Stream<T> fetch(Query<T, String> query) {
+        if (query.getSortOrders().isEmpty()
+                && query.getInMemorySorting() == null
+                && isLoaded(getFilter(query), query.getOffset(),
+                        query.getLimit())) {
+            return loaded.fetch(query.getOffset(), query.getLimit());
+        }
+        return super.fetch(query);
+    }
+
+    /**
+     * The size and a range of items loaded for a filter.
+     *
+     * @param <T>
+     *            the type of the items
+     */
+    static final class Loaded<T> implements Serializable {
+        private final String filter;
+        private final int size;
+        private final int offset;
+        private final List<T> items;
+
+        private Loaded(String filter, int size, int offset, List<T> items) {
+            this.filter = filter;
+            this.size = size;
+            this.offset = offset;
+            this.items = items;
+        }
+
+        private boolean covers(String filter, int offset, int limit) {
+            int end = Math.min(offset + limit, size);
+            return Objects.equals(filter, this.filter) && offset >= this.offset
+                    && end <= this.offset + items.size();
+        }
+
+        private Stream<T> fetch(int offset, int limit) {
+            int start = offset - this.offset;
+            int end = Math.min(start + limit, items.size());
+            return items.subList(Math.min(start, end), end).stream();
+        }
+    }
+}
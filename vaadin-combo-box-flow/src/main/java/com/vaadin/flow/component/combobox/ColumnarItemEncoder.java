@@ -0,0 +1,120 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.combobox;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+import elemental.json.JsonValue;
+
+/**
+ * Encodes a list of generated items in a columnar form, which is expanded back
+ * to item objects by the connector.
+ * <p>
+ * Instead of repeating the property names of every item, the encoded object
+ * lists the property names once in a {@code columns} array, and the values of
+ * each property in an array of the same position in the {@code values} array:
+ *
+ * <pre>
+ * {"columns": ["key", "label"], "values": [["1", "2"], ["foo", "bar"]]}
+ * </pre>
+ *
+ * A property missing from an item is encoded as <code>null</code> in its
+ * column, and the index of the item is added to the array of the same
+ * position in the {@code missing} array, so that it's not confused with a
+ * property whose value is <code>null</code>. The {@code missing} array is
+ * left out when every item has every property:
+ *
+ * <pre>
+ * {"columns": ["key", "selected"], "values": [["1", "2"], [true, null]],
+ *  "missing": [[], [1]]}
+ * </pre>
+ *
+ * @author Vaadin Ltd
+ */
+final class ColumnarItemEncoder implements Serializable {
+
+    static final String COLUMNS = "columns";
+    static final String VALUES = "values";
+    static final String MISSING = "missing";
+
+    private ColumnarItemEncoder() {
+        // Static helpers only
+    }
+
+    /**
+     * Encodes the given items.
+     *
+     * @param items
+     *            the items generated by the data generators, not
+     *            <code>null</code>
+     * @return the encoded items
+     */
+    static JsonObject encode(List<JsonValue> items) {
+        Map<String, JsonArray> columns = new LinkedHashMap<>();
+        Map<String, JsonArray> missing = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            JsonObject item = (JsonObject) items.get(i);
+            for (String name : item.keys()) {
+                JsonArray column = columns.get(name);
+                if (column == null) {
+                    column = Json.createArray();
+                    JsonArray missingIndexes = Json.createArray();
+                    // Fill in the items which don't have the property
+                    for (int j = 0; j < i; j++) {
+                        column.set(j, Json.createNull());
+                        missingIndexes.set(j, j);
+                    }
+                    columns.put(name, column);
+                    missing.put(name, missingIndexes);
+                }
+                column.set(i, item.get(name));
+            }
+            for (Map.Entry<String, JsonArray> column : columns.entrySet()) {
+                if (column.getValue().length() == i) {
+                    column.getValue().set(i, Json.createNull());
+                    JsonArray missingIndexes = missing.get(column.getKey());
+                    missingIndexes.set(missingIndexes.length(), i);
+                }
+            }
+        }
+
+        JsonArray names = Json.createArray();
+        JsonArray values = Json.createArray();
+        JsonArray missingValues = Json.createArray();
+        boolean anyMissing = false;
+        for (Map.Entry<String, JsonArray> column : columns.entrySet()) {
+            names.set(names.length(), column.getKey());
+            values.set(values.length(), column.getValue());
+            JsonArray missingIndexes = missing.get(column.getKey());
+            missingValues.set(missingValues.length(), missingIndexes);
+            anyMissing |= missingIndexes.length() > 0;
+        }
+
+        JsonObject encoded = Json.createObject();
+        encoded.put(COLUMNS, names);
+        encoded.put(VALUES, values);
+        if (anyMissing) {
+            encoded.put(MISSING, missingValues);
+        }
+        return encoded;
+    }
+}
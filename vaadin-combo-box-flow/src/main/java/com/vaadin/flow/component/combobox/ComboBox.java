@@ -16,11 +16,15 @@
 package com.vaadin.flow.component.combobox;
 
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import com.vaadin.flow.component.AttachEvent;
@@ -39,6 +43,7 @@ import com.vaadin.flow.data.provider.CallbackDataProvider;
 import com.vaadin.flow.data.provider.CompositeDataGenerator;
 import com.vaadin.flow.data.provider.DataChangeEvent.DataRefreshEvent;
 import com.vaadin.flow.data.provider.DataCommunicator;
+import com.vaadin.flow.data.provider.DataGenerator;
 import com.vaadin.flow.data.provider.DataKeyMapper;
 import com.vaadin.flow.data.provider.DataProvider;
 import com.vaadin.flow.data.provider.ListDataProvider;
@@ -50,10 +55,12 @@ import com.vaadin.flow.dom.PropertyChangeEvent;
 import com.vaadin.flow.function.SerializableBiPredicate;
 import com.vaadin.flow.function.SerializableConsumer;
 import com.vaadin.flow.function.SerializableFunction;
+import com.vaadin.flow.function.ValueProvider;
 import com.vaadin.flow.internal.JsonUtils;
 import com.vaadin.flow.shared.Registration;
 
 import elemental.json.Json;
+import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 import elemental.json.JsonValue;
 
@@ -70,14 +77,16 @@ import elemental.json.JsonValue;
  * ComboBox can do filtering either in the browser or in the server. When
  * ComboBox has only a relatively small set of items, the filtering will happen
  * in the browser, allowing smooth user-experience. When the size of the data
- * set is larger than the {@code pageSize}, the webcomponent doesn't necessarily
- * have all the data available and it will make requests to the server to handle
- * the filtering. Also, if you have defined custom filtering logic, with eg.
+ * set is larger than the client-side filter threshold, which is the page size
+ * by default, the webcomponent doesn't necessarily have all the data available
+ * and it will make requests to the server to handle the filtering. Also, if
+ * you have defined custom filtering logic, with eg.
  * {@link #setItems(ItemFilter, Collection)}, filtering will happen in the
- * server. To enable client-side filtering with larger data sets, you can
- * override the {@code pageSize} to be bigger than the size of your data set.
- * However, then the full data set will be sent to the client immediately and
- * you will lose the benefits of lazy loading.
+ * server. To enable client-side filtering with larger data sets, you can raise
+ * the threshold with {@link #setClientSideFilterThreshold(int)} above the size
+ * of your data set, without changing the page size. However, then the full
+ * data set will be sent to the client immediately and you will lose the
+ * benefits of lazy loading.
  *
  * @param <T>
  *            the type of the items to be inserted in the combo box
@@ -120,6 +129,38 @@ public class ComboBox<T> extends GeneratedVaadinComboBox<ComboBox<T>, T>
         Stream<T> fetchItems(String filter, int offset, int limit);
     }
 
+    /**
+     * A callback method for fetching items, which can stop fetching once the
+     * items are not needed anymore. The callback is provided with a non-null
+     * string filter, offset index, limit and a cancellation token.
+     *
+     * @param <T>
+     *            item (bean) type in ComboBox
+     * @see FetchCancellationToken
+     */
+    @FunctionalInterface
+    public interface CancellableFetchItemsCallback<T> extends Serializable {
+
+        /**
+         * Returns a stream of items that match the given filter, limiting the
+         * results with given offset and limit. The returned items are
+         * discarded if the token has been cancelled.
+         *
+         * @param filter
+         *            a non-null filter string
+         * @param offset
+         *            the first index to fetch
+         * @param limit
+         *            the fetched item count
+         * @param cancellationToken
+         *            the token telling whether the items are still needed,
+         *            not <code>null</code>
+         * @return stream of items
+         */
+        Stream<T> fetchItems(String filter, int offset, int limit,
+                FetchCancellationToken cancellationToken);
+    }
+
     private class CustomValueRegistration implements Registration {
 
         private Registration delegate;
@@ -142,18 +183,98 @@ public class ComboBox<T> extends GeneratedVaadinComboBox<ComboBox<T>, T>
         }
     }
 
+    /**
+     * Size of the items matching a filter, estimated from the fetched pages
+     * when the data provider is set without a size callback.
+     * <p>
+     * The estimate is updated from the thread fetching the items, which is
+     * not holding the session lock when a fetch executor is set, so the
+     * state is only accessed in synchronized methods. The page size is kept
+     * here for the same reason, instead of reading the element property.
+     */
+    private static final class SizeEstimate implements Serializable {
+        private String filter;
+        private int pageSize;
+        private int size;
+        private int reportedSize;
+        private boolean exact;
+
+        private SizeEstimate(int pageSize) {
+            this.pageSize = pageSize;
+        }
+
+        private synchronized void setPageSize(int pageSize) {
+            this.pageSize = pageSize;
+        }
+
+        private synchronized int getSize(String filter) {
+            if (!Objects.equals(filter, this.filter)) {
+                this.filter = filter;
+                size = pageSize;
+                exact = false;
+            }
+            reportedSize = size;
+            return size;
+        }
+
+        private synchronized int getCurrentSize() {
+            return size;
+        }
+
+        private synchronized void onFetched(String filter, int offset,
+                int limit, int count) {
+            if (!Objects.equals(filter, this.filter)) {
+                return;
+            }
+            if (count < limit) {
+                size = offset + count;
+                exact = true;
+            } else if (!exact) {
+                // A full page, assume there's at least one more
+                size = Math.max(size, offset + count + limit);
+            }
+        }
+
+        private synchronized boolean isExceededBy(int end) {
+            return size > reportedSize && end > reportedSize;
+        }
+
+        private synchronized void clear() {
+            filter = null;
+        }
+    }
+
     private final class UpdateQueue implements Update {
-        private transient List<Runnable> queue = new ArrayList<>();
+        private final int size;
+        private transient JsonArray ranges = Json.createArray();
 
         private UpdateQueue(int size) {
-            enqueue("$connector.updateSize", size);
+            this.size = size;
+            updateClientSideFilter(size);
         }
 
         @Override
         public void set(int start, List<JsonValue> items) {
-            enqueue("$connector.set", start,
-                    items.stream().collect(JsonUtils.asArray()),
-                    ComboBox.this.lastFilter);
+            if (!isFetchFor(ComboBox.this.lastFilter)) {
+                // The client has requested another filter, which is still
+                // being fetched in the fetch executor, and would discard the
+                // items. Synchronous fetches are always for the latest filter.
+                return;
+            }
+            JsonObject range = Json.createObject();
+            range.put("start", start);
+            if (itemDictionary != null) {
+                items = items.stream().<JsonValue> map(
+                        item -> itemDictionary.compact((JsonObject) item))
+                        .collect(Collectors.toList());
+            }
+            // All the items for client-side filtering are sent compactly
+            boolean bulkTransfer = items.size() > getPageSize() && getElement()
+                    .getProperty("_clientSideFilter", false);
+            range.put("items", columnarItemEncoding || bulkTransfer
+                    ? ColumnarItemEncoder.encode(items)
+                    : items.stream().collect(JsonUtils.asArray()));
+            ranges.set(ranges.length(), range);
         }
 
         @Override
@@ -163,13 +284,13 @@ public class ComboBox<T> extends GeneratedVaadinComboBox<ComboBox<T>, T>
 
         @Override
         public void commit(int updateId) {
-            enqueue("$connector.confirm", updateId, ComboBox.this.lastFilter);
-            queue.forEach(Runnable::run);
-            queue.clear();
-        }
-
-        private void enqueue(String name, Serializable... arguments) {
-            queue.add(() -> getElement().callJsFunction(name, arguments));
+            // The estimated size may change while fetching the items
+            int currentSize = sizeEstimate != null
+                    ? sizeEstimate.getCurrentSize()
+                    : size;
+            getElement().callJsFunction("$connector.applyUpdate", currentSize,
+                    ranges, updateId, ComboBox.this.lastFilter);
+            ranges = Json.createArray();
         }
     }
 
@@ -197,6 +318,38 @@ public class ComboBox<T> extends GeneratedVaadinComboBox<ComboBox<T>, T>
         boolean test(T item, String filterText);
     }
 
+    /**
+     * Policy for fetching the first page of items before the drop-down is
+     * opened.
+     *
+     * @see ComboBox#setPrefetchPolicy(PrefetchPolicy)
+     */
+    public enum PrefetchPolicy {
+        /**
+         * The items are fetched when the drop-down is opened for the first
+         * time.
+         */
+        LAZY_ON_OPEN,
+
+        /**
+         * The first page is fetched when the combo box gets focus, so that it
+         * is usually available by the time the user opens the drop-down.
+         */
+        ON_FOCUS,
+
+        /**
+         * The first page is fetched once the browser is idle after the combo
+         * box has been attached.
+         */
+        ON_IDLE_AFTER_ATTACH,
+
+        /**
+         * The first page is sent in the same response which attaches the
+         * combo box.
+         */
+        EAGER
+    }
+
     private ItemLabelGenerator<T> itemLabelGenerator = String::valueOf;
 
     private Renderer<T> renderer;
@@ -207,6 +360,10 @@ public class ComboBox<T> extends GeneratedVaadinComboBox<ComboBox<T>, T>
     // provided.
     private String lastFilter;
 
+    // Filter currently applied to the data communicator. Unlike lastFilter,
+    // it's not cleared when resetting.
+    private String appliedFilter;
+
     private DataCommunicator<T> dataCommunicator;
     private DataCommunicatorInitializer dataCommunicatorInitializer;
     private Registration lazyOpenRegistration;
@@ -227,14 +384,66 @@ public class ComboBox<T> extends GeneratedVaadinComboBox<ComboBox<T>, T>
 
     private UserProvidedFilter userProvidedFilter = UserProvidedFilter.UNDECIDED;
 
+    private boolean indexedFiltering;
+
+    private SizeEstimate sizeEstimate;
+
+    private LabelCache<T> labelCache;
+
+    private transient Executor fetchExecutor;
+    private AsyncFetchDataProvider<T> asyncDataProvider;
+    // The latest filter requested from the client, used for discarding data
+    // loaded asynchronously for a filter which has been changed since
+    private String asyncRequestedFilter;
+    // Token of the fetches for the latest filter requested from the client
+    private volatile FetchCancellationToken fetchToken;
+
+    private int prefetchPageCount;
+
+    private PrefetchPolicy prefetchPolicy = PrefetchPolicy.LAZY_ON_OPEN;
+
+    private String persistentCacheName;
+    private boolean lazyDataProvider;
+    private String dataVersion;
+
+    // Looked up by its name when deserialized
+    private transient ComboBoxCatalog<T> catalog;
+    private String catalogName;
+
+    // Budget of the client-side cache, either in items or in pages, or -1
+    private int clientCacheSize = -1;
+    private int clientCachePageCount = -1;
+    private int clientCachedItemCount = -1;
+    private int clientCachedPageCount = -1;
+
+    private boolean columnarItemEncoding;
+
+    // The selected key the client has, or null if it needs to be sent
+    private String sentSelectedKey;
+
+    private boolean evictUnusedKeys;
+    // Items whose key has been created for the value, by identifier, until
+    // the data communicator sends them
+    private final Map<Object, T> selectionKeyItems = new HashMap<>();
+    private boolean generatingSelectedItem;
+
+    private int clientSideFilterThreshold = -1;
+
+    private ValueProvider<T, ?> itemIdProvider;
+    private ItemIdKeyMapper<T> itemIdKeyMapper;
+
+    private ComboBoxItemDictionary<T> itemDictionary;
+
     /**
      * Creates an empty combo box with the defined page size for lazy loading.
      * <p>
      * The default page size is 50.
      * <p>
-     * The page size is also the largest number of items that can support
-     * client-side filtering. If you provide more items than the page size, the
-     * component has to fall back to server-side filtering.
+     * By default, the page size is also the largest number of items that can
+     * support client-side filtering. If you provide more items than the page
+     * size, the component has to fall back to server-side filtering, unless
+     * the threshold is increased with
+     * {@link #setClientSideFilterThreshold(int)}.
      *
      * @param pageSize
      *            the amount of items to request at a time for lazy loading
@@ -243,8 +452,45 @@ public class ComboBox<T> extends GeneratedVaadinComboBox<ComboBox<T>, T>
     public ComboBox(int pageSize) {
         super(null, null, String.class, ComboBox::presentationToModel,
                 ComboBox::modelToPresentation, true);
-        dataGenerator.addDataGenerator((item, jsonObject) -> jsonObject
-                .put("label", generateLabel(item)));
+        dataGenerator.addDataGenerator((item, jsonObject) -> {
+            if (!selectionKeyItems.isEmpty() && !generatingSelectedItem) {
+                // The key is now managed by the data communicator
+                selectionKeyItems.remove(getDataProvider().getId(item));
+            }
+            jsonObject.put("label", generateLabel(item));
+        });
+        dataGenerator.addDataGenerator(new DataGenerator<T>() {
+            @Override
+            public void generateData(T item, JsonObject jsonObject) {
+                if (itemDictionary != null || itemIdKeyMapper != null) {
+                    // Replace the key generated by the data communicator
+                    jsonObject.put("key", getKeyMapper().key(item));
+                }
+            }
+
+            @Override
+            public void destroyData(T item) {
+                if (itemDictionary == null && itemIdKeyMapper != null
+                        && (getValue() == null
+                        || !Objects.equals(itemIdProvider.apply(item),
+                                itemIdProvider.apply(getValue())))) {
+                    itemIdKeyMapper.remove(item);
+                }
+            }
+
+            @Override
+            public void destroyAllData() {
+                if (itemDictionary == null && itemIdKeyMapper != null) {
+                    // Only the key of the value may still be sent by the
+                    // client after a reset
+                    T value = getValue();
+                    itemIdKeyMapper.removeAll();
+                    if (value != null) {
+                        itemIdKeyMapper.key(value);
+                    }
+                }
+            }
+        });
 
         setItemValuePath("key");
         setItemIdPath("key");
@@ -309,15 +555,41 @@ public class ComboBox<T> extends GeneratedVaadinComboBox<ComboBox<T>, T>
         if (presentation == null || comboBox.dataCommunicator == null) {
             return comboBox.getEmptyValue();
         }
-        return comboBox.getKeyMapper().get(presentation);
+        T item = comboBox.getKeyMapper().get(presentation);
+        if (item == null && comboBox.itemDictionary == null
+                && (comboBox.persistentCacheName != null
+                        || comboBox.catalogName != null)) {
+            // The item may have been sent in an earlier session or from the
+            // catalog
+            item = comboBox.findItemById(presentation);
+        }
+        return item;
+    }
+
+    private T findItemById(String key) {
+        DataProvider<T, ?> dataProvider = getDataProvider();
+        if (itemIdProvider == null || dataProvider == null
+                || !dataProvider.isInMemory()) {
+            return null;
+        }
+        return dataProvider.fetch(new Query<>())
+                .filter(item -> key
+                        .equals(String.valueOf(itemIdProvider.apply(item))))
+                .findFirst().map(item -> {
+                    getKeyMapper().key(item);
+                    return item;
+                }).orElse(null);
     }
 
     private static <T> String modelToPresentation(ComboBox<T> comboBox,
             T model) {
         if (model == null) {
+            if (comboBox.dataCommunicator != null) {
+                comboBox.evictSelectionKeys(null);
+            }
             return null;
         }
-        return comboBox.getKeyMapper().key(model);
+        return comboBox.getSelectionKey(model);
     }
 
     @Override
@@ -337,6 +609,10 @@ public class ComboBox<T> extends GeneratedVaadinComboBox<ComboBox<T>, T>
     }
 
     private void refreshValue() {
+        if (sentSelectedKey != null) {
+            // The client would otherwise keep the key of the previous value
+            sendSelectedKey();
+        }
         T value = getValue();
 
         DataKeyMapper<T> keyMapper = getKeyMapper();
@@ -355,7 +631,12 @@ public class ComboBox<T> extends GeneratedVaadinComboBox<ComboBox<T>, T>
         // item is not yet loaded
         JsonObject json = Json.createObject();
         json.put("key", keyMapper.key(value));
-        dataGenerator.generateData(value, json);
+        generatingSelectedItem = true;
+        try {
+            dataGenerator.generateData(value, json);
+        } finally {
+            generatingSelectedItem = false;
+        }
         setSelectedItem(json);
         getElement().setProperty(PROP_VALUE, keyMapper.key(value));
     }
@@ -395,19 +676,68 @@ public class ComboBox<T> extends GeneratedVaadinComboBox<ComboBox<T>, T>
      * {@link #setItemLabelGenerator(ItemLabelGenerator)}.
      * <p>
      * Filtering will be handled in the client-side if the size of the data set
-     * is less than the page size. To force client-side filtering with a larger
-     * data set (at the cost of increased network traffic), you can increase the
-     * page size with {@link #setPageSize(int)}.
+     * is at most the client-side filter threshold, which is the page size by
+     * default. To force client-side filtering with a larger data set (at the
+     * cost of increased network traffic), you can raise the threshold with
+     * {@link #setClientSideFilterThreshold(int)}.
      * <p>
      * Setting the items creates a new DataProvider, which in turn resets the
      * combo box's value to {@code null}. If you want to add and remove items to
      * the current item set without resetting the value, you should update the
      * previously set item collection and call
      * {@code getDataProvider().refreshAll()}.
+     * <p>
+     * If indexed filtering is enabled with
+     * {@link #setIndexedFiltering(boolean)}, the server-side filtering of the
+     * items is answered from an index built from the item labels. Otherwise
+     * the matches of the latest filter are kept, so that only they are checked
+     * when the user refines the filter.
      */
     @Override
     public void setItems(Collection<T> items) {
-        setDataProvider(DataProvider.ofCollection(items));
+        if (indexedFiltering) {
+            setDataProvider(new IndexedListDataProvider<>(items,
+                    this::generateLabel, this::getLocale));
+        } else {
+            setDataProvider(new NarrowingListDataProvider<>(items,
+                    this::generateLabel, this::getLocale));
+        }
+    }
+
+    /**
+     * Sets whether the items set with {@link #setItems(Collection)} are
+     * filtered using an index built from the item labels.
+     * <p>
+     * By default, every filter typed by the user is checked against the label
+     * of every item, which is costly for large in-memory data sets that have to
+     * be filtered in the server. With indexed filtering, a trigram index of the
+     * lower case labels is built once, so that a filter query only needs to
+     * visit the items that may match it. The index is rebuilt when the data
+     * provider is refreshed or the item label generator is changed, at the
+     * cost of keeping the labels of all the items in memory.
+     * <p>
+     * The setting takes effect on the next call to
+     * {@link #setItems(Collection)}. It doesn't affect filtering in the
+     * client-side, nor items set with a custom {@link ItemFilter}.
+     *
+     * @param indexedFiltering
+     *            {@code true} to filter the items using an index, {@code false}
+     *            to compare the label of each item
+     */
+    public void setIndexedFiltering(boolean indexedFiltering) {
+        this.indexedFiltering = indexedFiltering;
+    }
+
+    /**
+     * Gets whether the items set with {@link #setItems(Collection)} are
+     * filtered using an index built from the item labels.
+     *
+     * @return {@code true} if indexed filtering is enabled, {@code false}
+     *         otherwise
+     * @see #setIndexedFiltering(boolean)
+     */
+    public boolean isIndexedFiltering() {
+        return indexedFiltering;
     }
 
     /**
@@ -416,8 +746,8 @@ public class ComboBox<T> extends GeneratedVaadinComboBox<ComboBox<T>, T>
      * <p>
      * Note that defining a custom filter will force the component to make
      * server roundtrips to handle the filtering. Otherwise it can handle
-     * filtering in the client-side, if the size of the data set is less than
-     * the {@link #setPageSize(int) pageSize}.
+     * filtering in the client-side, if the size of the data set is at most the
+     * {@link #setClientSideFilterThreshold(int) client-side filter threshold}.
      * <p>
      * Setting the items creates a new DataProvider, which in turn resets the
      * combo box's value to {@code null}. If you want to add and remove items to
@@ -443,8 +773,8 @@ public class ComboBox<T> extends GeneratedVaadinComboBox<ComboBox<T>, T>
      * <p>
      * Note that defining a custom filter will force the component to make
      * server roundtrips to handle the filtering. Otherwise it can handle
-     * filtering in the client-side, if the size of the data set is less than
-     * the {@link #setPageSize(int) pageSize}.
+     * filtering in the client-side, if the size of the data set is at most the
+     * {@link #setClientSideFilterThreshold(int) client-side filter threshold}.
      * <p>
      * Setting the items creates a new DataProvider, which in turn resets the
      * combo box's value to {@code null}. If you want to add and remove items to
@@ -508,9 +838,31 @@ public class ComboBox<T> extends GeneratedVaadinComboBox<ComboBox<T>, T>
         Objects.requireNonNull(filterConverter,
                 "filterConverter cannot be null");
 
+        cancelFetch();
+        if (catalogName != null) {
+            catalog = null;
+            catalogName = null;
+            getElement().setProperty("_catalogUrl", null);
+        }
+        if (fetchExecutor != null && !dataProvider.isInMemory()
+                && !(dataProvider instanceof AsyncFetchDataProvider)) {
+            AsyncFetchDataProvider<T> asyncFetchDataProvider = new AsyncFetchDataProvider<>(
+                    dataProvider.withConvertedFilter(filterConverter));
+            setDataProvider(asyncFetchDataProvider);
+            asyncDataProvider = asyncFetchDataProvider;
+            return;
+        }
+
         if (userProvidedFilter == UserProvidedFilter.UNDECIDED) {
             userProvidedFilter = UserProvidedFilter.YES;
         }
+        sizeEstimate = null;
+        asyncDataProvider = null;
+        lazyDataProvider = !dataProvider.isInMemory();
+        if (lazyDataProvider && persistentCacheName != null) {
+            // The selected item could not be resolved from its id
+            setPersistentCache(null, null);
+        }
 
         if (dataCommunicator == null) {
             dataCommunicator = new DataCommunicator<>(dataGenerator,
@@ -539,14 +891,16 @@ public class ComboBox<T> extends GeneratedVaadinComboBox<ComboBox<T>, T>
                 lazyOpenRegistration = null;
             }
             scheduleRender();
+            appliedFilter = getFilterString();
             SerializableConsumer<C> providerFilterSlot = dataCommunicator
                     .setDataProvider(dataProvider,
-                            convertOrNull.apply(getFilterString()));
+                            convertOrNull.apply(appliedFilter));
 
             filterSlot = filter -> {
                 if (!Objects.equals(filter, lastFilter)) {
                     providerFilterSlot.accept(convertOrNull.apply(filter));
                     lastFilter = filter;
+                    appliedFilter = filter;
                 }
             };
 
@@ -591,8 +945,15 @@ public class ComboBox<T> extends GeneratedVaadinComboBox<ComboBox<T>, T>
             dataProviderListener.remove();
         }
         dataProviderListener = dataProvider.addDataProviderListener(e -> {
+            if (asyncDataProvider != null) {
+                asyncDataProvider.clear();
+            }
             if (e instanceof DataRefreshEvent) {
-                dataCommunicator.refresh(((DataRefreshEvent<T>) e).getItem());
+                T item = ((DataRefreshEvent<T>) e).getItem();
+                if (labelCache != null) {
+                    labelCache.remove(item);
+                }
+                dataCommunicator.refresh(item);
             } else {
                 refreshAllData(shouldForceServerSideFiltering);
             }
@@ -602,6 +963,13 @@ public class ComboBox<T> extends GeneratedVaadinComboBox<ComboBox<T>, T>
     @Override
     protected void onAttach(AttachEvent attachEvent) {
         super.onAttach(attachEvent);
+        sentSelectedKey = null;
+        if (prefetchPolicy != PrefetchPolicy.LAZY_ON_OPEN) {
+            schedulePrefetch();
+        }
+        if (itemDictionary != null) {
+            itemDictionary.attach();
+        }
         DataProvider<T, ?> dataProvider = getDataProvider();
         if (dataProvider != null && dataProviderListener == null) {
             setupDataProviderListener(dataProvider);
@@ -618,12 +986,39 @@ public class ComboBox<T> extends GeneratedVaadinComboBox<ComboBox<T>, T>
     }
 
     private void refreshAllData(boolean forceServerSideFiltering) {
-        setClientSideFilter(!forceServerSideFiltering && getDataProvider()
-                .size(new Query<>()) <= getPageSizeDouble());
+        // Otherwise client-side filtering is decided when the data
+        // communicator sends the size, see updateClientSideFilter
+        if (forceServerSideFiltering) {
+            setClientSideFilter(false);
+        }
+        if (sizeEstimate != null) {
+            sizeEstimate.clear();
+        }
+        if (labelCache != null) {
+            labelCache.clear();
+        }
 
         reset();
     }
 
+    /**
+     * Enables client-side filtering when the data set fits into one page.
+     * <p>
+     * The size is the one computed by the data communicator for the update
+     * being sent, which is the size of the whole data set when no filter is
+     * applied. Reusing it avoids an additional size query to the data provider
+     * on every refresh.
+     *
+     * @param size
+     *            the size sent to the client
+     */
+    private void updateClientSideFilter(int size) {
+        if (!shouldForceServerSideFiltering
+                && (appliedFilter == null || appliedFilter.isEmpty())) {
+            setClientSideFilter(size <= getClientSideFilterThreshold());
+        }
+    }
+
     /**
      * Sets a list data provider as the data provider of this combo box.
      * <p>
@@ -633,9 +1028,10 @@ public class ComboBox<T> extends GeneratedVaadinComboBox<ComboBox<T>, T>
      * {@link #setItemLabelGenerator(ItemLabelGenerator)}.
      * <p>
      * Filtering will be handled in the client-side if the size of the data set
-     * is less than the page size. To force client-side filtering with a larger
-     * data set (at the cost of increased network traffic), you can increase the
-     * page size with {@link #setPageSize(int)}.
+     * is at most the client-side filter threshold, which is the page size by
+     * default. To force client-side filtering with a larger data set (at the
+     * cost of increased network traffic), you can raise the threshold with
+     * {@link #setClientSideFilterThreshold(int)}.
      * <p>
      * Changing the combo box's data provider resets its current value to
      * {@code null}.
@@ -648,6 +1044,13 @@ public class ComboBox<T> extends GeneratedVaadinComboBox<ComboBox<T>, T>
             userProvidedFilter = UserProvidedFilter.NO;
         }
 
+        if (listDataProvider instanceof LabelFilteringListDataProvider) {
+            setDataProvider(listDataProvider,
+                    ((LabelFilteringListDataProvider<T>) listDataProvider)::createFilter);
+            initDataCommunicator();
+            return;
+        }
+
         // Cannot use the case insensitive contains shorthand from
         // ListDataProvider since it wouldn't react to locale changes
         ItemFilter<T> defaultItemFilter = (item,
@@ -684,6 +1087,80 @@ public class ComboBox<T> extends GeneratedVaadinComboBox<ComboBox<T>, T>
                 q -> sizeCallback.apply(q.getFilter().orElse(""))));
     }
 
+    /**
+     * Sets a CallbackDataProvider using the given fetch items callback, without
+     * ever querying the count of the items.
+     * <p>
+     * The size shown in the drop-down is an estimate which is extended by one
+     * page every time a full page of items is fetched, and which becomes exact
+     * when the callback returns fewer items than requested. This saves the
+     * count query per filter change, which can be as costly as fetching the
+     * items for large back-ends.
+     * <p>
+     * Changing the combo box's data provider resets its current value to
+     * {@code null}.
+     *
+     * @param fetchItems
+     *            a callback for fetching items, not <code>null</code>
+     * @see #setDataProvider(FetchItemsCallback, SerializableFunction)
+     */
+    public void setDataProvider(FetchItemsCallback<T> fetchItems) {
+        Objects.requireNonNull(fetchItems,
+                "The fetch items callback can not be null");
+        SizeEstimate estimate = new SizeEstimate(getPageSize());
+        userProvidedFilter = UserProvidedFilter.YES;
+        setDataProvider(new CallbackDataProvider<>(q -> {
+            String filter = q.getFilter().orElse("");
+            List<T> items = fetchItems
+                    .fetchItems(filter, q.getOffset(), q.getLimit())
+                    .collect(Collectors.toList());
+            estimate.onFetched(filter, q.getOffset(), q.getLimit(),
+                    items.size());
+            return items.stream();
+        }, q -> estimate.getSize(q.getFilter().orElse(""))));
+        sizeEstimate = estimate;
+        if (asyncDataProvider != null) {
+            asyncDataProvider.setSizeEstimated(true);
+        }
+    }
+
+    /**
+     * Sets a CallbackDataProvider using the given cancellable fetch items
+     * callback and a size callback.
+     * <p>
+     * The fetch is cancelled when the user changes the filter before the
+     * items have been sent to the client. This only helps when fetching in an
+     * executor set with {@link #setFetchExecutor(Executor)}, where the items
+     * of a superseded filter are neither fetched again nor generated and sent
+     * while the new filter is loading. Otherwise the items are fetched while
+     * handling the request for them, always for the latest filter, and the
+     * token is never cancelled during the fetch.
+     * <p>
+     * Changing the combo box's data provider resets its current value to
+     * {@code null}.
+     *
+     * @param fetchItems
+     *            a callback for fetching items, not <code>null</code>
+     * @param sizeCallback
+     *            a callback for getting the count of items, not
+     *            <code>null</code>
+     * @see FetchCancellationToken
+     * @see #setDataProvider(FetchItemsCallback, SerializableFunction)
+     */
+    public void setDataProvider(CancellableFetchItemsCallback<T> fetchItems,
+            SerializableFunction<String, Integer> sizeCallback) {
+        Objects.requireNonNull(fetchItems,
+                "The fetch items callback can not be null");
+        Objects.requireNonNull(sizeCallback,
+                "The size callback can not be null");
+        userProvidedFilter = UserProvidedFilter.YES;
+        setDataProvider(new CallbackDataProvider<>(q -> {
+            String filter = q.getFilter().orElse("");
+            return fetchItems.fetchItems(filter, q.getOffset(), q.getLimit(),
+                    getFetchToken(filter));
+        }, q -> sizeCallback.apply(q.getFilter().orElse(""))));
+    }
+
     /**
      * Sets a list data provider with an item filter as the data provider of
      * this combo box. The item filter is used to compare each item to the
@@ -691,8 +1168,8 @@ public class ComboBox<T> extends GeneratedVaadinComboBox<ComboBox<T>, T>
      * <p>
      * Note that defining a custom filter will force the component to make
      * server roundtrips to handle the filtering. Otherwise it can handle
-     * filtering in the client-side, if the size of the data set is less than
-     * the {@link #setPageSize(int) pageSize}.
+     * filtering in the client-side, if the size of the data set is at most the
+     * {@link #setClientSideFilterThreshold(int) client-side filter threshold}.
      * <p>
      * Changing the combo box's data provider resets its current value to
      * {@code null}.
@@ -728,6 +1205,47 @@ public class ComboBox<T> extends GeneratedVaadinComboBox<ComboBox<T>, T>
         return null;
     }
 
+    /**
+     * Sets the executor used for fetching items from the data provider.
+     * <p>
+     * By default, the items requested by the client are fetched from the data
+     * provider while holding the session lock, which blocks all other requests
+     * of the same user session until the data provider returns. With an
+     * executor, the size and the items are fetched in the executor and sent
+     * to the client once fetched. Data fetched for a filter which the user has
+     * changed since is discarded. For example, on Java 21 an executor created
+     * with {@code Executors.newVirtualThreadPerTaskExecutor()} runs each fetch
+     * in its own virtual thread.
+     * <p>
+     * As the fetched items are sent to the client outside of a client request,
+     * server push or polling needs to be enabled in the UI. The data provider
+     * must be safe to use from other threads than the one holding the session
+     * lock. In-memory data providers are always used synchronously.
+     * <p>
+     * The executor is used for data providers set after calling this method.
+     * When it's in use, {@link #getDataProvider()} returns a wrapper of the
+     * set data provider. The executor is not serialized with the combo box, so
+     * data is fetched synchronously after deserialization.
+     *
+     * @param fetchExecutor
+     *            the executor for fetching items, or <code>null</code> to fetch
+     *            items synchronously
+     */
+    public void setFetchExecutor(Executor fetchExecutor) {
+        this.fetchExecutor = fetchExecutor;
+    }
+
+    /**
+     * Gets the executor used for fetching items from the data provider.
+     *
+     * @return the executor for fetching items, or <code>null</code> if items
+     *         are fetched synchronously
+     * @see #setFetchExecutor(Executor)
+     */
+    public Executor getFetchExecutor() {
+        return fetchExecutor;
+    }
+
     /**
      * Sets the item label generator that is used to produce the strings shown
      * in the combo box for each item. By default,
@@ -744,6 +1262,13 @@ public class ComboBox<T> extends GeneratedVaadinComboBox<ComboBox<T>, T>
         Objects.requireNonNull(itemLabelGenerator,
                 "The item label generator can not be null");
         this.itemLabelGenerator = itemLabelGenerator;
+        if (labelCache != null) {
+            labelCache.clear();
+        }
+        if (getDataProvider() instanceof LabelFilteringListDataProvider) {
+            ((LabelFilteringListDataProvider<T>) getDataProvider())
+                    .invalidateMatches();
+        }
         reset();
         if (getValue() != null) {
             refreshValue();
@@ -760,15 +1285,80 @@ public class ComboBox<T> extends GeneratedVaadinComboBox<ComboBox<T>, T>
         return itemLabelGenerator;
     }
 
+    /**
+     * Sets the maximum number of item labels cached by this combo box.
+     * <p>
+     * Labels are generated for each item sent to the client, for each item
+     * compared against the filter in the server and for the selected item.
+     * When the {@link ItemLabelGenerator} is costly, caching avoids generating
+     * the label of the same item over and over again. The least recently used
+     * labels are evicted when the cache is full. The cache is cleared when the
+     * item label generator is changed or all the data is refreshed, and the
+     * label of a single item is removed when that item is refreshed.
+     * <p>
+     * Items are used as the keys of the cache, so they should implement
+     * {@code equals} and {@code hashCode} consistently with the data provider.
+     * <p>
+     * By default, the cache is disabled.
+     *
+     * @param maxSize
+     *            the maximum number of cached labels, or zero to disable the
+     *            cache
+     * @see #getItemLabelCacheHitCount()
+     * @see #getItemLabelCacheMissCount()
+     */
+    public void setItemLabelCacheSize(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException(
+                    "Label cache size should not be negative.");
+        }
+        labelCache = maxSize > 0 ? new LabelCache<>(maxSize) : null;
+    }
+
+    /**
+     * Gets the maximum number of item labels cached by this combo box.
+     *
+     * @return the maximum number of cached labels, or zero if the cache is
+     *         disabled
+     * @see #setItemLabelCacheSize(int)
+     */
+    public int getItemLabelCacheSize() {
+        return labelCache != null ? labelCache.getMaxSize() : 0;
+    }
+
+    /**
+     * Gets the number of item labels found in the label cache since it was
+     * enabled.
+     *
+     * @return the number of cache hits
+     * @see #setItemLabelCacheSize(int)
+     */
+    public long getItemLabelCacheHitCount() {
+        return labelCache != null ? labelCache.getHitCount() : 0;
+    }
+
+    /**
+     * Gets the number of item labels that had to be generated since the label
+     * cache was enabled.
+     *
+     * @return the number of cache misses
+     * @see #setItemLabelCacheSize(int)
+     */
+    public long getItemLabelCacheMissCount() {
+        return labelCache != null ? labelCache.getMissCount() : 0;
+    }
+
     /**
      * Sets the page size, which is the number of items requested at a time from
      * the data provider. This does not guarantee a maximum query size to the
      * backend; when the overlay has room to render more new items than the page
      * size, multiple "pages" will be requested at once.
      * <p>
-     * The page size is also the largest number of items that can support
-     * client-side filtering. If you provide more items than the page size, the
-     * component has to fall back to server-side filtering.
+     * By default, the page size is also the largest number of items that can
+     * support client-side filtering. If you provide more items than the page
+     * size, the component has to fall back to server-side filtering, unless
+     * the threshold is increased with
+     * {@link #setClientSideFilterThreshold(int)}.
      * <p>
      * Setting the page size after the ComboBox has been rendered effectively
      * resets the component, and the current page(s) and sent over again.
@@ -788,6 +1378,12 @@ public class ComboBox<T> extends GeneratedVaadinComboBox<ComboBox<T>, T>
         if (dataCommunicator != null) {
             dataCommunicator.setPageSize(pageSize);
         }
+        if (sizeEstimate != null) {
+            sizeEstimate.setPageSize(pageSize);
+        }
+        if (clientCachePageCount >= 0) {
+            updateClientCacheSize();
+        }
         reset();
     }
 
@@ -795,9 +1391,11 @@ public class ComboBox<T> extends GeneratedVaadinComboBox<ComboBox<T>, T>
      * Gets the page size, which is the number of items fetched at a time from
      * the data provider.
      * <p>
-     * The page size is also the largest number of items that can support
-     * client-side filtering. If you provide more items than the page size, the
-     * component has to fall back to server-side filtering.
+     * By default, the page size is also the largest number of items that can
+     * support client-side filtering. If you provide more items than the page
+     * size, the component has to fall back to server-side filtering, unless
+     * the threshold is increased with
+     * {@link #setClientSideFilterThreshold(int)}.
      * <p>
      * The default page size is 50.
      *
@@ -808,6 +1406,592 @@ public class ComboBox<T> extends GeneratedVaadinComboBox<ComboBox<T>, T>
         return getElement().getProperty("pageSize", 50);
     }
 
+    /**
+     * Sets the number of pages which are sent to the client in advance, after
+     * the pages the drop-down has requested. The prefetched pages are sent in
+     * the same response and kept in the client-side cache, so that scrolling
+     * past a page boundary doesn't have to wait for a round trip to the
+     * server.
+     * <p>
+     * Prefetching increases the number of items fetched from the data
+     * provider and sent to the client on each request. The default value is
+     * 0, which disables prefetching.
+     *
+     * @param prefetchPageCount
+     *            the number of pages to send in advance, not negative
+     */
+    public void setPrefetchPageCount(int prefetchPageCount) {
+        if (prefetchPageCount < 0) {
+            throw new IllegalArgumentException(
+                    "Prefetch page count should not be negative.");
+        }
+        this.prefetchPageCount = prefetchPageCount;
+    }
+
+    /**
+     * Gets the number of pages which are sent to the client in advance.
+     *
+     * @return the number of pages to send in advance
+     * @see #setPrefetchPageCount(int)
+     */
+    public int getPrefetchPageCount() {
+        return prefetchPageCount;
+    }
+
+    /**
+     * Sets when the first page of items is fetched. By default, the items are
+     * fetched when the drop-down is opened for the first time, so the user
+     * waits for a server round trip when opening it. With the other policies,
+     * the first page and the size are sent to the client in advance, without
+     * fetching data for combo boxes which are never used with
+     * {@link PrefetchPolicy#ON_FOCUS}.
+     * <p>
+     * Prefetching initializes a lazy data provider, which is otherwise only
+     * done when the drop-down is opened. Only the first page without a filter
+     * is prefetched.
+     *
+     * @param prefetchPolicy
+     *            the prefetch policy, not <code>null</code>
+     */
+    public void setPrefetchPolicy(PrefetchPolicy prefetchPolicy) {
+        this.prefetchPolicy = Objects.requireNonNull(prefetchPolicy,
+                "The prefetch policy can not be null");
+        schedulePrefetch();
+    }
+
+    /**
+     * Gets when the first page of items is fetched.
+     *
+     * @return the prefetch policy
+     * @see #setPrefetchPolicy(PrefetchPolicy)
+     */
+    public PrefetchPolicy getPrefetchPolicy() {
+        return prefetchPolicy;
+    }
+
+    /**
+     * Sets whether the items are sent to the client in a columnar form. When
+     * enabled, the property names of the items, such as the key and the label,
+     * are sent once per response instead of once per item, and the connector
+     * expands the items on the client. This reduces the size of the responses
+     * considerably with large page sizes.
+     * <p>
+     * The default value is {@code false}.
+     *
+     * @param columnarItemEncoding
+     *            {@code true} to send the items in a columnar form,
+     *            {@code false} to send each item as a separate object
+     */
+    public void setColumnarItemEncoding(boolean columnarItemEncoding) {
+        this.columnarItemEncoding = columnarItemEncoding;
+    }
+
+    /**
+     * Gets whether the items are sent to the client in a columnar form.
+     *
+     * @return {@code true} if the items are sent in a columnar form,
+     *         {@code false} otherwise
+     * @see #setColumnarItemEncoding(boolean)
+     */
+    public boolean isColumnarItemEncoding() {
+        return columnarItemEncoding;
+    }
+
+    /**
+     * Sets whether the keys created for the values of the ComboBox are removed
+     * once they are no longer needed.
+     * <p>
+     * The keys of the items sent to the client are removed by the data
+     * communicator once the items are no longer in the active range. The key
+     * of a value which hasn't been sent to the client, for example a value set
+     * programmatically, is however kept for the lifetime of the component.
+     * When enabled, such a key is removed as soon as the value changes, which
+     * keeps the memory usage of a long-lived ComboBox bounded when many
+     * different values are set over time.
+     * <p>
+     * The default value is {@code false}.
+     *
+     * @param evictUnusedKeys
+     *            {@code true} to remove the keys of previous values,
+     *            {@code false} to keep them
+     */
+    public void setEvictUnusedKeys(boolean evictUnusedKeys) {
+        this.evictUnusedKeys = evictUnusedKeys;
+        if (!evictUnusedKeys) {
+            selectionKeyItems.clear();
+        }
+    }
+
+    /**
+     * Gets whether the keys created for the values of the ComboBox are removed
+     * once they are no longer needed.
+     *
+     * @return {@code true} if the keys of previous values are removed,
+     *         {@code false} otherwise
+     * @see #setEvictUnusedKeys(boolean)
+     */
+    public boolean isEvictUnusedKeys() {
+        return evictUnusedKeys;
+    }
+
+    /**
+     * Sets the provider of the item ids used as the keys of the items on the
+     * client. By default, the keys are generated by the data communicator,
+     * and the same item may get a different key after the data is reset or
+     * the data provider is changed. With an id provider, an item always has
+     * the same key, derived from its id, so that the selected key and the
+     * items on the client stay valid across resets.
+     * <p>
+     * The ids must be unique and not <code>null</code>, and their string
+     * representations must be unique as well.
+     * <p>
+     * Setting the id provider resets the items on the client.
+     *
+     * @param itemIdProvider
+     *            the function providing a stable id for an item, or
+     *            <code>null</code> to use generated keys
+     */
+    public void setItemIdProvider(ValueProvider<T, ?> itemIdProvider) {
+        this.itemIdProvider = itemIdProvider;
+        itemIdKeyMapper = itemIdProvider != null
+                ? new ItemIdKeyMapper<>(itemIdProvider)
+                : null;
+        selectionKeyItems.clear();
+        if (itemIdProvider == null && persistentCacheName != null) {
+            // The cached keys would not be valid anymore
+            setPersistentCache(null, null);
+        }
+        // The renderer uses the key mapper for resolving items
+        scheduleRender();
+        reset();
+        if (dataCommunicator != null && getValue() != null) {
+            refreshValue();
+        }
+    }
+
+    /**
+     * Gets the provider of the item ids used as the keys of the items on the
+     * client.
+     *
+     * @return the item id provider, or <code>null</code> if the keys are
+     *         generated
+     * @see #setItemIdProvider(ValueProvider)
+     */
+    public ValueProvider<T, ?> getItemIdProvider() {
+        return itemIdProvider;
+    }
+
+    /**
+     * Sets the largest number of items which are filtered on the client. When
+     * there are at most this many items, they are all sent to the client at
+     * once in a compact form, and filtering the items while typing doesn't
+     * need a round trip to the server. Otherwise the items are filtered on the
+     * server, a page at a time.
+     * <p>
+     * Client-side filtering is only used for items set with
+     * {@link #setItems(Collection)} or
+     * {@link #setDataProvider(ListDataProvider)}, and not when a custom
+     * {@link ItemFilter} is used.
+     * <p>
+     * By default, the threshold is the {@link #setPageSize(int) page size}.
+     *
+     * @param clientSideFilterThreshold
+     *            the largest number of items filtered on the client, not
+     *            negative
+     */
+    public void setClientSideFilterThreshold(int clientSideFilterThreshold) {
+        if (clientSideFilterThreshold < 0) {
+            throw new IllegalArgumentException(
+                    "Client-side filter threshold should not be negative.");
+        }
+        this.clientSideFilterThreshold = clientSideFilterThreshold;
+        reset();
+    }
+
+    /**
+     * Gets the largest number of items which are filtered on the client.
+     *
+     * @return the largest number of items filtered on the client
+     * @see #setClientSideFilterThreshold(int)
+     */
+    public int getClientSideFilterThreshold() {
+        return clientSideFilterThreshold >= 0 ? clientSideFilterThreshold
+                : getPageSize();
+    }
+
+    /**
+     * Binds this ComboBox to an item dictionary shared with other ComboBoxes
+     * in the same UI which list the same items. The ComboBoxes share the keys
+     * of the items, and each item is sent to the browser only once, instead of
+     * once per ComboBox. The item id provider set with
+     * {@link #setItemIdProvider(ValueProvider)} is not used while the
+     * ComboBox is bound to a dictionary.
+     * <p>
+     * Setting the dictionary resets the items on the client.
+     *
+     * @param itemDictionary
+     *            the shared item dictionary, or <code>null</code> to not use a
+     *            dictionary
+     * @see ComboBoxItemDictionary
+     */
+    public void setItemDictionary(ComboBoxItemDictionary<T> itemDictionary) {
+        this.itemDictionary = itemDictionary;
+        selectionKeyItems.clear();
+        getElement().setProperty("_itemDictionary",
+                itemDictionary != null ? itemDictionary.getId() : null);
+        if (itemDictionary != null) {
+            getUI().ifPresent(ui -> itemDictionary.attach());
+        }
+        // The renderer uses the key mapper for resolving items
+        scheduleRender();
+        reset();
+        if (dataCommunicator != null && getValue() != null) {
+            refreshValue();
+        }
+    }
+
+    /**
+     * Gets the item dictionary this ComboBox is bound to.
+     *
+     * @return the shared item dictionary, or <code>null</code> if not bound
+     *         to a dictionary
+     * @see #setItemDictionary(ComboBoxItemDictionary)
+     */
+    public ComboBoxItemDictionary<T> getItemDictionary() {
+        return itemDictionary;
+    }
+
+    /**
+     * Enables caching the items of this ComboBox persistently in the browser,
+     * for large item lists which rarely change. The pages of items are stored
+     * in the browser's IndexedDB under the given cache name, and opening a
+     * ComboBox with the same cache name and data version, even in a later
+     * session, needs no item transfer for the pages already stored. When the
+     * data version changes, the items stored for the cache name are
+     * discarded, and the least recently used pages are discarded when the
+     * cache grows beyond a fixed number of pages.
+     * <p>
+     * The data version identifies the items and their presentation, e.g. a
+     * hash of the item list, and must change whenever the items, their labels
+     * or their rendering change. The items are identified by the ids of the
+     * item id provider, which must be set with
+     * {@link #setItemIdProvider(ValueProvider)}, and the selected item is
+     * resolved from the in-memory data provider if it has not been sent in
+     * the current session. The persistent cache is therefore only available
+     * for in-memory items, and is disabled when a lazy data provider is set.
+     * Lists small enough to be filtered on the client are not cached
+     * persistently, and neither are the items of a ComboBox bound to an item
+     * dictionary.
+     *
+     * @param persistentCacheName
+     *            the name of the cache, shared by the ComboBoxes listing the
+     *            same items, or <code>null</code> to disable the persistent
+     *            cache
+     * @param dataVersion
+     *            the version of the items, not <code>null</code> unless the
+     *            cache name is <code>null</code>
+     * @throws IllegalStateException
+     *             if no item id provider has been set, or if the data
+     *             provider is not in-memory
+     */
+    public void setPersistentCache(String persistentCacheName,
+            String dataVersion) {
+        if (persistentCacheName != null) {
+            Objects.requireNonNull(dataVersion,
+                    "The data version can not be null");
+            if (itemIdProvider == null) {
+                throw new IllegalStateException(
+                        "The persistent cache requires stable item keys, "
+                                + "set an item id provider first");
+            }
+            if (lazyDataProvider) {
+                throw new IllegalStateException(
+                        "The persistent cache requires in-memory items for "
+                                + "resolving the selected item from its id");
+            }
+        }
+        this.persistentCacheName = persistentCacheName;
+        this.dataVersion = persistentCacheName != null ? dataVersion : null;
+        getElement().setProperty("_persistentCacheName", persistentCacheName);
+        getElement().setProperty("_dataVersion", this.dataVersion);
+        reset();
+    }
+
+    /**
+     * Gets the name of the persistent cache of the items in the browser.
+     *
+     * @return the name of the cache, or <code>null</code> if the items are
+     *         not cached persistently
+     * @see #setPersistentCache(String, String)
+     */
+    public String getPersistentCacheName() {
+        return persistentCacheName;
+    }
+
+    /**
+     * Gets the version of the items cached persistently in the browser.
+     *
+     * @return the data version, or <code>null</code> if the items are not
+     *         cached persistently
+     * @see #setPersistentCache(String, String)
+     */
+    public String getDataVersion() {
+        return dataVersion;
+    }
+
+    /**
+     * Sets the items of this ComboBox from a catalog registered for the whole
+     * application. The browser fetches the items from the URL of the catalog,
+     * where they can be cached by the browser, and filters
+     * them on the client, so the items are not sent through the UI
+     * connection.
+     * <p>
+     * The item id provider and the item label generator of the catalog are
+     * used by this ComboBox. Renderers are not supported, as the catalog only
+     * contains the keys and the labels of the items. Setting another data
+     * provider or items stops using the catalog.
+     *
+     * @param catalog
+     *            the catalog to list the items of, not <code>null</code>
+     * @see ComboBoxCatalog#register(com.vaadin.flow.server.VaadinContext,
+     *      String, Collection, ValueProvider, ItemLabelGenerator)
+     */
+    public void setCatalog(ComboBoxCatalog<T> catalog) {
+        Objects.requireNonNull(catalog, "The catalog can not be null");
+        setItemLabelGenerator(catalog.getItemLabelGenerator());
+        setItemIdProvider(catalog.getItemIdProvider());
+        setItems(catalog.getItems());
+        this.catalog = catalog;
+        catalogName = catalog.getName();
+        getElement().setProperty("_catalogUrl", catalog.getUrl());
+    }
+
+    /**
+     * Gets the catalog the items of this ComboBox are listed from.
+     *
+     * @return the catalog, or <code>null</code> if the items are not listed
+     *         from a catalog
+     * @see #setCatalog(ComboBoxCatalog)
+     */
+    @SuppressWarnings("unchecked")
+    public ComboBoxCatalog<T> getCatalog() {
+        if (catalog == null && catalogName != null) {
+            catalog = (ComboBoxCatalog<T>) ComboBoxCatalog.get(catalogName);
+        }
+        return catalog;
+    }
+
+    /**
+     * Sets the time in milliseconds to wait after the user has stopped typing
+     * before the items matching the filter are requested from the server. In
+     * the {@link #setAdaptiveDebounce(boolean) adaptive mode}, this is the
+     * longest time to wait.
+     * <p>
+     * The default value is 500 milliseconds.
+     *
+     * @param filterDebounceTime
+     *            the filter debounce time in milliseconds, not negative
+     */
+    public void setFilterDebounceTime(int filterDebounceTime) {
+        if (filterDebounceTime < 0) {
+            throw new IllegalArgumentException(
+                    "Filter debounce time should not be negative.");
+        }
+        getElement().setProperty("_filterDebounceTime", filterDebounceTime);
+    }
+
+    /**
+     * Gets the time in milliseconds to wait after the user has stopped typing
+     * before the items matching the filter are requested from the server.
+     *
+     * @return the filter debounce time in milliseconds
+     * @see #setFilterDebounceTime(int)
+     */
+    public int getFilterDebounceTime() {
+        return getElement().getProperty("_filterDebounceTime", 500);
+    }
+
+    /**
+     * Sets the time in milliseconds to wait before requesting more items from
+     * the server while a filter request is pending, for example when
+     * scrolling right after typing. In the
+     * {@link #setAdaptiveDebounce(boolean) adaptive mode}, this is the longest
+     * time to wait.
+     * <p>
+     * The default value is 200 milliseconds.
+     *
+     * @param rangeDebounceTime
+     *            the range debounce time in milliseconds, not negative
+     */
+    public void setRangeDebounceTime(int rangeDebounceTime) {
+        if (rangeDebounceTime < 0) {
+            throw new IllegalArgumentException(
+                    "Range debounce time should not be negative.");
+        }
+        getElement().setProperty("_rangeDebounceTime", rangeDebounceTime);
+    }
+
+    /**
+     * Gets the time in milliseconds to wait before requesting more items from
+     * the server while a filter request is pending.
+     *
+     * @return the range debounce time in milliseconds
+     * @see #setRangeDebounceTime(int)
+     */
+    public int getRangeDebounceTime() {
+        return getElement().getProperty("_rangeDebounceTime", 200);
+    }
+
+    /**
+     * Sets whether the debounce times are adapted to the latency of the
+     * server. When enabled, the client measures the time it takes to receive
+     * the requested items, and waits for a shorter time on a fast connection
+     * and longer on a slow one. The configured
+     * {@link #setFilterDebounceTime(int) filter} and
+     * {@link #setRangeDebounceTime(int) range} debounce times are the upper
+     * limits.
+     * <p>
+     * The default value is {@code false}.
+     *
+     * @param adaptiveDebounce
+     *            {@code true} to adapt the debounce times to the latency,
+     *            {@code false} to use the configured times
+     */
+    public void setAdaptiveDebounce(boolean adaptiveDebounce) {
+        getElement().setProperty("_adaptiveDebounce", adaptiveDebounce);
+    }
+
+    /**
+     * Gets whether the debounce times are adapted to the latency of the
+     * server.
+     *
+     * @return {@code true} if the debounce times are adapted to the latency,
+     *         {@code false} otherwise
+     * @see #setAdaptiveDebounce(boolean)
+     */
+    public boolean isAdaptiveDebounce() {
+        return getElement().getProperty("_adaptiveDebounce", false);
+    }
+
+    /**
+     * Sets the largest number of items the client keeps cached for this
+     * ComboBox. The pages loaded for the current filter and for recently used
+     * filters are kept in the browser within this budget, and the least
+     * recently used pages are evicted once it's exceeded. The pages currently
+     * shown are always kept, and when filtering on the client, the whole list
+     * is always kept.
+     * <p>
+     * By default, the budget is ten pages or 1000 items, whichever is larger.
+     * A smaller budget reduces the memory used by the browser, e.g. on low-end
+     * devices with many ComboBoxes, at the cost of more requests when
+     * scrolling back or returning to a previous filter.
+     *
+     * @param itemCount
+     *            the number of items to keep cached, not negative
+     * @see #setClientCachePageCount(int)
+     */
+    public void setClientCacheSize(int itemCount) {
+        if (itemCount < 0) {
+            throw new IllegalArgumentException(
+                    "Client cache size should not be negative.");
+        }
+        clientCacheSize = itemCount;
+        clientCachePageCount = -1;
+        updateClientCacheSize();
+    }
+
+    /**
+     * Sets the largest number of pages the client keeps cached for this
+     * ComboBox. The budget follows the page size if it's changed later.
+     *
+     * @param pageCount
+     *            the number of pages to keep cached, not negative
+     * @see #setClientCacheSize(int)
+     */
+    public void setClientCachePageCount(int pageCount) {
+        if (pageCount < 0) {
+            throw new IllegalArgumentException(
+                    "Client cache page count should not be negative.");
+        }
+        clientCachePageCount = pageCount;
+        clientCacheSize = -1;
+        updateClientCacheSize();
+    }
+
+    /**
+     * Gets the largest number of items the client keeps cached for this
+     * ComboBox.
+     *
+     * @return the number of items to keep cached, or -1 if the default budget
+     *         is used
+     * @see #setClientCacheSize(int)
+     * @see #setClientCachePageCount(int)
+     */
+    public int getClientCacheSize() {
+        return clientCachePageCount >= 0 ? clientCachePageCount * getPageSize()
+                : clientCacheSize;
+    }
+
+    private void updateClientCacheSize() {
+        getElement().setProperty("_pageCacheSize", getClientCacheSize());
+    }
+
+    /**
+     * Sets whether the client reports the size of its cache for this ComboBox
+     * to the server, for monitoring the memory used by the browser. The
+     * client reports the size when it has changed, at most once every five
+     * seconds, which is then available from
+     * {@link #getClientCachedItemCount()} and
+     * {@link #getClientCachedPageCount()}.
+     *
+     * @param cacheFootprintReporting
+     *            {@code true} to report the cache size, {@code false} to not
+     *            report it
+     */
+    public void setCacheFootprintReporting(boolean cacheFootprintReporting) {
+        getElement().setProperty("_reportCacheFootprint",
+                cacheFootprintReporting);
+    }
+
+    /**
+     * Gets whether the client reports the size of its cache for this ComboBox.
+     *
+     * @return {@code true} if the cache size is reported, {@code false}
+     *         otherwise
+     * @see #setCacheFootprintReporting(boolean)
+     */
+    public boolean isCacheFootprintReporting() {
+        return getElement().getProperty("_reportCacheFootprint", false);
+    }
+
+    /**
+     * Gets the number of items cached by the client for this ComboBox, as
+     * last reported by the client.
+     *
+     * @return the number of cached items, or -1 if not reported
+     * @see #setCacheFootprintReporting(boolean)
+     */
+    public int getClientCachedItemCount() {
+        return clientCachedItemCount;
+    }
+
+    /**
+     * Gets the number of pages cached by the client for this ComboBox, as
+     * last reported by the client.
+     *
+     * @return the number of cached pages, or -1 if not reported
+     * @see #setCacheFootprintReporting(boolean)
+     */
+    public int getClientCachedPageCount() {
+        return clientCachedPageCount;
+    }
+
+    @ClientCallable
+    private void reportCacheFootprint(int itemCount, int pageCount) {
+        clientCachedItemCount = itemCount;
+        clientCachedPageCount = pageCount;
+    }
+
     @Override
     public void setOpened(boolean opened) {
         super.setOpened(opened);
@@ -1081,13 +2265,20 @@ public class ComboBox<T> extends GeneratedVaadinComboBox<ComboBox<T>, T>
         if (item == null) {
             return "";
         }
-        String label = getItemLabelGenerator().apply(item);
+        String label = labelCache != null ? labelCache.get(item) : null;
+        if (label != null) {
+            return label;
+        }
+        label = getItemLabelGenerator().apply(item);
         if (label == null) {
             throw new IllegalStateException(String.format(
                     "Got 'null' as a label value for the item '%s'. "
                             + "'%s' instance may not return 'null' values",
                     item, ItemLabelGenerator.class.getSimpleName()));
         }
+        if (labelCache != null) {
+            labelCache.put(item, label);
+        }
         return label;
     }
 
@@ -1102,7 +2293,7 @@ public class ComboBox<T> extends GeneratedVaadinComboBox<ComboBox<T>, T>
                 dataGeneratorRegistration = null;
             }
             Rendering<T> rendering = renderer.render(getElement(),
-                    dataCommunicator.getKeyMapper(), template);
+                    getKeyMapper(), template);
             if (rendering.getDataGenerator().isPresent()) {
                 dataGeneratorRegistration = dataGenerator
                         .addDataGenerator(rendering.getDataGenerator().get());
@@ -1118,11 +2309,151 @@ public class ComboBox<T> extends GeneratedVaadinComboBox<ComboBox<T>, T>
 
     @ClientCallable
     private void setRequestedRange(int start, int length, String filter) {
+        // Send the prefetched pages in the same response
+        int requestedLength = length + prefetchPageCount * getPageSize();
+        if (start == 0 && (filter == null || filter.isEmpty())
+                && !shouldForceServerSideFiltering && isFilteredOnClient()) {
+            // Send all the items at once if they can be filtered on the client
+            requestedLength = Math.max(requestedLength,
+                    getClientSideFilterThreshold());
+        }
+        requestRange(start, requestedLength, filter);
+    }
+
+    private boolean isFilteredOnClient() {
+        if (getElement().getProperty("_clientSideFilter", false)) {
+            return true;
+        }
+        // The client may not know yet, but the size of in-memory items is
+        // cheap to check
+        DataProvider<T, ?> dataProvider = getDataCommunicator()
+                .getDataProvider();
+        return dataProvider != null && dataProvider.isInMemory()
+                && dataProvider.size(
+                        new Query<>()) <= getClientSideFilterThreshold();
+    }
+
+    private void requestRange(int start, int length, String filter) {
+        FetchCancellationToken token = fetchToken;
+        if (token == null || !token.isFor(filter)) {
+            // The items for the previous filter are not needed anymore
+            if (token != null) {
+                token.cancel();
+            }
+            fetchToken = new FetchCancellationToken(filter);
+        }
+        if (sizeEstimate != null && sizeEstimate.isExceededBy(start + length)) {
+            // The data communicator only picks up the extended size when
+            // reset, which also forgets the keys of the items sent so far.
+            // The client drops its pages too, and requests the ones in view
+            // again.
+            reset();
+            return;
+        }
+        if (fetchExecutor != null && asyncDataProvider != null) {
+            asyncRequestedFilter = filter;
+            if (!asyncDataProvider.isLoaded(filter, start, length)) {
+                if (!Objects.equals(filter, lastFilter)) {
+                    // Until the new filter is loaded, the data communicator
+                    // would only fetch and generate the items of the
+                    // superseded filter if flushed
+                    getDataCommunicator().setRequestedRange(0, 0);
+                }
+                fetchAsync(start, length, filter);
+                return;
+            }
+        }
         getDataCommunicator().setRequestedRange(start, length);
         filterSlot.accept(filter);
-        // Send (possibly updated) key for the selected value
-        getElement().executeJs("this._selectedKey=$0",
-                getValue() != null ? getKeyMapper().key(getValue()) : "");
+        sendSelectedKey();
+    }
+
+    private void sendSelectedKey() {
+        // Send the key for the selected value if it has been updated
+        String selectedKey = getValue() != null
+                ? getSelectionKey(getValue())
+                : "";
+        if (!selectedKey.equals(sentSelectedKey)) {
+            getElement().executeJs("this._selectedKey=$0", selectedKey);
+            sentSelectedKey = selectedKey;
+        }
+    }
+
+    private void fetchAsync(int start, int length, String filter) {
+        UI ui = getUI().orElse(null);
+        if (ui == null) {
+            return;
+        }
+        AsyncFetchDataProvider<T> provider = asyncDataProvider;
+        provider.load(filter, start, length, fetchExecutor)
+                .whenComplete((loaded, error) -> ui.access(() -> {
+                    // Discard the data, or the failure of a cancelled fetch,
+                    // if the data provider or the filter has been changed
+                    // while loading
+                    if (provider != asyncDataProvider || !Objects
+                            .equals(filter, asyncRequestedFilter)) {
+                        return;
+                    }
+                    if (error != null) {
+                        throw new IllegalStateException(
+                                "Fetching items for the ComboBox failed",
+                                error);
+                    }
+                    provider.store(loaded);
+                    requestRange(start, length, filter);
+                }));
+    }
+
+    private boolean isFetchFor(String filter) {
+        FetchCancellationToken token = fetchToken;
+        return token == null || token.isFor(filter);
+    }
+
+    private FetchCancellationToken getFetchToken(String filter) {
+        // May be called outside of the session lock when fetching in the
+        // fetch executor
+        FetchCancellationToken token = fetchToken;
+        if (token == null) {
+            // Fetching before the client has requested any items
+            token = new FetchCancellationToken(filter);
+            fetchToken = token;
+        }
+        return token.isFor(filter) ? token : FetchCancellationToken.cancelled();
+    }
+
+    private void cancelFetch() {
+        FetchCancellationToken token = fetchToken;
+        if (token != null) {
+            token.cancel();
+            fetchToken = null;
+        }
+    }
+
+    @ClientCallable
+    private void prefetch() {
+        // Nothing to do if the client has already requested items since the
+        // last reset
+        if (lastFilter != null || isOpened()) {
+            return;
+        }
+        if (dataCommunicatorInitializer != null) {
+            // Initializing resets the client, which has to happen before the
+            // prefetched items are sent rather than after them
+            initDataCommunicator();
+            runBeforeClientResponse(ui -> prefetch());
+            return;
+        }
+        setRequestedRange(0, getPageSize(), "");
+    }
+
+    private void schedulePrefetch() {
+        runBeforeClientResponse(ui -> {
+            getElement().callJsFunction("$connector.schedulePrefetch",
+                    prefetchPolicy.name());
+            if (prefetchPolicy == PrefetchPolicy.EAGER) {
+                prefetch();
+            }
+        });
     }
 
     @ClientCallable
@@ -1141,15 +2472,53 @@ public class ComboBox<T> extends GeneratedVaadinComboBox<ComboBox<T>, T>
     }
 
     private DataKeyMapper<T> getKeyMapper() {
+        if (itemDictionary != null) {
+            return itemDictionary.getKeyMapper();
+        }
+        if (itemIdKeyMapper != null) {
+            return itemIdKeyMapper;
+        }
         return dataCommunicator.getKeyMapper();
     }
 
+    private String getSelectionKey(T value) {
+        DataKeyMapper<T> keyMapper = getKeyMapper();
+        // Shared keys are not evicted
+        if (evictUnusedKeys && itemDictionary == null) {
+            evictSelectionKeys(value);
+            if (!keyMapper.has(value)) {
+                selectionKeyItems.put(getDataProvider().getId(value), value);
+            }
+        }
+        return keyMapper.key(value);
+    }
+
+    private void evictSelectionKeys(T value) {
+        if (selectionKeyItems.isEmpty()) {
+            return;
+        }
+        Object valueId = value != null ? getDataProvider().getId(value) : null;
+        Iterator<Map.Entry<Object, T>> iterator = selectionKeyItems.entrySet()
+                .iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Object, T> entry = iterator.next();
+            if (!Objects.equals(entry.getKey(), valueId)) {
+                getKeyMapper().remove(entry.getValue());
+                iterator.remove();
+            }
+        }
+    }
+
     private void setClientSideFilter(boolean clientSideFilter) {
         getElement().setProperty("_clientSideFilter", clientSideFilter);
     }
 
     private void reset() {
         lastFilter = null;
+        if (itemDictionary == null && itemIdKeyMapper == null) {
+            // Keys derived from item ids or shared keys stay valid
+            sentSelectedKey = null;
+        }
         if (dataCommunicator != null) {
             dataCommunicator.setRequestedRange(0, 0);
             dataCommunicator.reset();
@@ -0,0 +1,364 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.combobox;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import com.vaadin.flow.component.ItemLabelGenerator;
+import com.vaadin.flow.function.ValueProvider;
+import com.vaadin.flow.server.VaadinContext;
+import com.vaadin.flow.server.VaadinService;
+import com.vaadin.flow.server.VaadinServletContext;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+
+/**
+ * Immutable list of items shared by the whole application, served to the
+ * browser as a versioned JSON resource which the browser can cache.
+ * <p>
+ * A catalog is registered once per application with
+ * {@link #register(VaadinContext, String, Collection, ValueProvider, ItemLabelGenerator)},
+ * e.g. in a {@link com.vaadin.flow.server.VaadinServiceInitListener}, and
+ * used in any number of ComboBoxes with
+ * {@link ComboBox#setCatalog(ComboBoxCatalog)}. The browser fetches the
+ * catalog from its URL, which changes whenever the items change, and filters
+ * it on the client. The catalogs are served by
+ * {@link ComboBoxCatalogServlet} without involving the sessions, with
+ * headers allowing shared caches such as a CDN to serve them, so the server
+ * does no per-session work for listing the items. The catalog is serialized with the sessions by its name only, and
+ * looked up again from the registry of the application when needed.
+ *
+ * @param <T>
+ *            the type of the items
+ * @author Vaadin Ltd
+ */
+public final class ComboBoxCatalog<T> implements Serializable {
+
+    static final String PATH_PREFIX = "combo-box-catalog/";
+
+    private static final Pattern NAME_PATTERN = Pattern
+            .compile("[A-Za-z0-9_-]+");
+
+    /**
+     * The catalogs of an application, stored as an attribute of its
+     * {@link VaadinContext}. The previous version of a catalog replaced by
+     * registering it again is still served, as browsers may have loaded a
+     * page referring to it.
+     */
+    private static final class Registry implements Serializable {
+        private final Map<String, ComboBoxCatalog<?>> catalogs = new ConcurrentHashMap<>();
+        private final Map<String, ComboBoxCatalog<?>> previousVersions = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * The items of a catalog, serialized as a reference to the registered
+     * catalog instead of as a copy of the items.
+     */
+    private static final class ItemList<T> extends AbstractList<T>
+            implements RandomAccess, Serializable {
+        private final String name;
+        private transient List<T> items;
+
+        private ItemList(String name, List<T> items) {
+            this.name = name;
+            this.items = items;
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<T> getItems() {
+            if (items == null) {
+                items = (List<T>) ComboBoxCatalog.get(name).getItems();
+            }
+            return items;
+        }
+
+        @Override
+        public T get(int index) {
+            return getItems().get(index);
+        }
+
+        @Override
+        public int size() {
+            return getItems().size();
+        }
+    }
+
+    private final String name;
+    private final String contextPath;
+    private final List<T> items;
+    private final ValueProvider<T, ?> itemIdProvider;
+    private final ItemLabelGenerator<T> itemLabelGenerator;
+    private final byte[] json;
+    private final String version;
+
+    private ComboBoxCatalog(String name, String contextPath,
+            Collection<T> items, ValueProvider<T, ?> itemIdProvider,
+            ItemLabelGenerator<T> itemLabelGenerator) {
+        this.name = name;
+        this.contextPath = contextPath;
+        this.items = new ItemList<>(name, new ArrayList<>(items));
+        this.itemIdProvider = itemIdProvider;
+        this.itemLabelGenerator = itemLabelGenerator;
+        json = toJson().getBytes(StandardCharsets.UTF_8);
+        version = hash(json);
+    }
+
+    /**
+     * Registers a catalog for an application, replacing any catalog
+     * previously registered with the same name. The replaced version is still
+     * served until the catalog is registered again, for the pages which
+     * already refer to it. The items are copied, and the catalog is served
+     * with the keys given by the id provider and the labels given by the
+     * label generator.
+     *
+     * @param context
+     *            the context of the application, not <code>null</code>
+     * @param name
+     *            the name of the catalog, only containing letters, digits,
+     *            '-' and '_', not <code>null</code>
+     * @param items
+     *            the items of the catalog, not <code>null</code>
+     * @param itemIdProvider
+     *            the function providing a stable and unique id for an item,
+     *            not <code>null</code>
+     * @param itemLabelGenerator
+     *            the function providing the label of an item, not
+     *            <code>null</code>
+     * @param <T>
+     *            the type of the items
+     * @return the registered catalog
+     */
+    public static <T> ComboBoxCatalog<T> register(VaadinContext context,
+            String name, Collection<T> items,
+            ValueProvider<T, ?> itemIdProvider,
+            ItemLabelGenerator<T> itemLabelGenerator) {
+        Objects.requireNonNull(context, "The context can not be null");
+        Objects.requireNonNull(name, "The catalog name can not be null");
+        Objects.requireNonNull(items, "The items can not be null");
+        Objects.requireNonNull(itemIdProvider,
+                "The item id provider can not be null");
+        Objects.requireNonNull(itemLabelGenerator,
+                "The item label generator can not be null");
+        if (!NAME_PATTERN.matcher(name).matches()) {
+            throw new IllegalArgumentException(
+                    "Catalog name should only contain letters, digits, '-' and '_'.");
+        }
+        String contextPath = context instanceof VaadinServletContext
+                ? ((VaadinServletContext) context).getContext()
+                        .getContextPath()
+                : "";
+        ComboBoxCatalog<T> catalog = new ComboBoxCatalog<>(name, contextPath,
+                items, itemIdProvider, itemLabelGenerator);
+        Registry registry = getRegistry(context);
+        ComboBoxCatalog<?> previous = registry.catalogs.put(name, catalog);
+        if (previous != null
+                && !previous.getVersion().equals(catalog.getVersion())) {
+            registry.previousVersions.put(name, previous);
+        }
+        return catalog;
+    }
+
+    /**
+     * Removes the catalog registered with the given name from an
+     * application. The catalog is not served anymore, and ComboBoxes listing
+     * its items can't be deserialized.
+     *
+     * @param context
+     *            the context of the application, not <code>null</code>
+     * @param name
+     *            the name of the catalog
+     * @return <code>true</code> if a catalog was removed, <code>false</code>
+     *         if no catalog was registered with the name
+     */
+    public static boolean unregister(VaadinContext context, String name) {
+        Objects.requireNonNull(context, "The context can not be null");
+        Registry registry = getRegistry(context);
+        registry.previousVersions.remove(name);
+        return registry.catalogs.remove(name) != null;
+    }
+
+    /**
+     * Gets the catalog registered with the given name for an application.
+     *
+     * @param context
+     *            the context of the application, not <code>null</code>
+     * @param name
+     *            the name of the catalog
+     * @return the catalog, or <code>null</code> if not registered
+     */
+    static ComboBoxCatalog<?> get(VaadinContext context, String name) {
+        return getRegistry(context).catalogs.get(name);
+    }
+
+    /**
+     * Gets the catalog registered with the given name for the current
+     * application.
+     *
+     * @param name
+     *            the name of the catalog
+     * @return the catalog, not <code>null</code>
+     * @throws IllegalStateException
+     *             if there's no current service or no catalog registered
+     *             with the name
+     */
+    static ComboBoxCatalog<?> get(String name) {
+        VaadinService service = VaadinService.getCurrent();
+        if (service == null) {
+            throw new IllegalStateException(String.format(
+                    "The catalog '%s' can't be looked up without a VaadinService",
+                    name));
+        }
+        ComboBoxCatalog<?> catalog = get(service.getContext(), name);
+        if (catalog == null) {
+            throw new IllegalStateException(
+                    String.format("The catalog '%s' is not registered", name));
+        }
+        return catalog;
+    }
+
+    /**
+     * Gets the content served for the given version of a catalog registered
+     * for an application, which is either the current version or the one it
+     * replaced.
+     *
+     * @param context
+     *            the context of the application, not <code>null</code>
+     * @param name
+     *            the name of the catalog
+     * @param version
+     *            the version of the catalog
+     * @return the UTF-8 encoded JSON array of the items, or <code>null</code>
+     *         if no such version is served
+     */
+    static byte[] getJson(VaadinContext context, String name,
+            String version) {
+        Registry registry = getRegistry(context);
+        for (ComboBoxCatalog<?> catalog : Arrays.asList(
+                registry.catalogs.get(name),
+                registry.previousVersions.get(name))) {
+            if (catalog != null && catalog.getVersion().equals(version)) {
+                return catalog.getJson();
+            }
+        }
+        return null;
+    }
+
+    private static Registry getRegistry(VaadinContext context) {
+        return context.getAttribute(Registry.class, Registry::new);
+    }
+
+    /**
+     * Gets the name of the catalog.
+     *
+     * @return the catalog name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the version of the catalog, which is a hash of its content.
+     *
+     * @return the catalog version
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the items of the catalog.
+     *
+     * @return an unmodifiable list of the items
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    ValueProvider<T, ?> getItemIdProvider() {
+        return itemIdProvider;
+    }
+
+    ItemLabelGenerator<T> getItemLabelGenerator() {
+        return itemLabelGenerator;
+    }
+
+    /**
+     * Gets the URL of the catalog, served by {@link ComboBoxCatalogServlet}
+     * from the root of the web application.
+     *
+     * @return the catalog URL
+     */
+    String getUrl() {
+        return contextPath + "/" + PATH_PREFIX + name + "/" + version
+                + ".json";
+    }
+
+    /**
+     * Gets the content served for the catalog.
+     *
+     * @return the UTF-8 encoded JSON array of the items
+     */
+    byte[] getJson() {
+        return json;
+    }
+
+    private String toJson() {
+        JsonArray array = Json.createArray();
+        for (T item : items) {
+            Object id = itemIdProvider.apply(item);
+            if (id == null) {
+                throw new IllegalStateException(String.format(
+                        "The item id provider returned null for the item '%s'",
+                        item));
+            }
+            JsonObject json = Json.createObject();
+            json.put("key", String.valueOf(id));
+            json.put("label", itemLabelGenerator.apply(item));
+            array.set(array.length(), json);
+        }
+        return array.toJson();
+    }
+
+    private static String hash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(content);
+            StringBuilder hex = new StringBuilder();
+            for (int i = 0; i < 10; i++) {
+                hex.append(String.format("%02x", digest[i]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(
+                    "SHA-256 is not supported by the JVM", e);
+        }
+    }
+}
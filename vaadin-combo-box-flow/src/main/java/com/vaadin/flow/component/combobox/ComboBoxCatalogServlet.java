@@ -0,0 +1,84 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.combobox;
+
+import java.io.IOException;
+
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.vaadin.flow.server.VaadinContext;
+import com.vaadin.flow.server.VaadinServletContext;
+
+/**
+ * Serves the {@link ComboBoxCatalog} instances registered for the
+ * application.
+ * <p>
+ * The servlet is mapped next to the Vaadin servlet instead of handling the
+ * catalogs as Vaadin requests, so that fetching a catalog neither creates nor
+ * locks a session. The responses only depend on the URL, which changes with
+ * the content of the catalog, so they can be cached publicly, e.g. by a CDN.
+ *
+ * @author Vaadin Ltd
+ */
+@WebServlet(urlPatterns = "/" + ComboBoxCatalog.PATH_PREFIX + "*")
+public class ComboBoxCatalogServlet extends HttpServlet {
+
+    static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    @Override
+    protected void doGet(HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        // The path is /<name>/<version>.json
+        String path = request.getPathInfo();
+        String[] parts = path != null ? path.split("/") : new String[0];
+        String version = parts.length == 3 && parts[2].endsWith(".json")
+                ? parts[2].substring(0, parts[2].length() - 5)
+                : null;
+        byte[] json = version != null
+                ? ComboBoxCatalog.getJson(getVaadinContext(), parts[1],
+                        version)
+                : null;
+        if (json == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND,
+                    "No such catalog");
+            return;
+        }
+
+        String etag = '"' + version + '"';
+        response.setHeader("ETag", etag);
+        response.setHeader("Cache-Control", CACHE_CONTROL);
+        if (etag.equals(request.getHeader("If-None-Match"))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setContentType("application/json; charset=UTF-8");
+        response.setContentLength(json.length);
+        response.getOutputStream().write(json);
+    }
+
+    /**
+     * Gets the context of the application, where the catalogs are
+     * registered.
+     *
+     * @return the context of the application
+     */
+    VaadinContext getVaadinContext() {
+        return new VaadinServletContext(getServletContext());
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.combobox;
+
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import com.vaadin.flow.data.provider.DataKeyMapper;
+import com.vaadin.flow.data.provider.KeyMapper;
+
+import elemental.json.Json;
+import elemental.json.JsonObject;
+
+/**
+ * Dictionary of items shared by several {@link ComboBox} instances in the same
+ * UI which list the same items, for example countries or currencies.
+ * <p>
+ * The ComboBoxes bound to a dictionary with
+ * {@link ComboBox#setItemDictionary(ComboBoxItemDictionary)} share the keys of
+ * the items, and each item is sent to the browser only once per UI. After
+ * that, the ComboBoxes only send the key of the item, which is resolved from
+ * the shared dictionary in the browser.
+ * <p>
+ * All the ComboBoxes bound to the same dictionary should use the same item
+ * label generator and renderer, since the item data generated by the first
+ * ComboBox which sends an item is used by all of them. A dictionary should
+ * only be used by the ComboBoxes of one UI at a time.
+ *
+ * @param <T>
+ *            the type of the items
+ * @author Vaadin Ltd
+ */
+public class ComboBoxItemDictionary<T> implements Serializable {
+
+    private final String id = UUID.randomUUID().toString();
+    private final KeyMapper<T> keyMapper = new KeyMapper<>();
+    private final Set<String> sentKeys = new HashSet<>();
+
+    /**
+     * Gets the id of the dictionary in the browser.
+     *
+     * @return the dictionary id
+     */
+    String getId() {
+        return id;
+    }
+
+    /**
+     * Gets the key mapper shared by the ComboBoxes bound to the dictionary.
+     *
+     * @return the shared key mapper
+     */
+    DataKeyMapper<T> getKeyMapper() {
+        return keyMapper;
+    }
+
+    /**
+     * Called when a ComboBox bound to the dictionary is attached. The items
+     * are sent again, since the ComboBox may be attached to a new page even in
+     * the same UI, e.g. when the UI is preserved on refresh.
+     */
+    void attach() {
+        sentKeys.clear();
+    }
+
+    /**
+     * Gets the data to send to the browser for a generated item. If the item
+     * has already been sent, only its key is sent.
+     *
+     * @param item
+     *            the generated item data, not <code>null</code>
+     * @return the data to send
+     */
+    JsonObject compact(JsonObject item) {
+        String key = item.getString("key");
+        if (sentKeys.add(key)) {
+            return item;
+        }
+        JsonObject compacted = Json.createObject();
+        compacted.put("key", key);
+        return compacted;
+    }
+}
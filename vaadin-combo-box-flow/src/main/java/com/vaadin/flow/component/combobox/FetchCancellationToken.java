@@ -0,0 +1,86 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.combobox;
+
+import java.io.Serializable;
+
+/**
+ * Token telling a {@link ComboBox.CancellableFetchItemsCallback} whether the
+ * items it is fetching are still needed.
+ * <p>
+ * A fetch is cancelled when the user changes the filter or the data provider
+ * is changed before the items have been sent to the client. A callback doing
+ * expensive work, e.g. paging through a remote service, can check
+ * {@link #isCancelled()} between the steps and return early. The items
+ * returned by a cancelled fetch are discarded.
+ *
+ * @author Vaadin Ltd
+ */
+public final class FetchCancellationToken implements Serializable {
+
+    private final String filter;
+    private volatile boolean cancelled;
+
+    /**
+     * Creates a token for fetching the items matching the given filter.
+     *
+     * @param filter
+     *            the filter string, may be <code>null</code>
+     */
+    FetchCancellationToken(String filter) {
+        this.filter = filter == null ? "" : filter;
+    }
+
+    /**
+     * Creates a token which is already cancelled.
+     *
+     * @return a cancelled token
+     */
+    static FetchCancellationToken cancelled() {
+        FetchCancellationToken token = new FetchCancellationToken(null);
+        token.cancel();
+        return token;
+    }
+
+    /**
+     * Gets whether the fetch has been cancelled.
+     *
+     * @return {@code true} if the fetched items are not needed anymore,
+     *         {@code false} otherwise
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Checks whether the token is for the given filter.
+     *
+     * @param filter
+     *            the filter string, may be <code>null</code>
+     * @return {@code true} if the token is for the filter, {@code false}
+     *         otherwise
+     */
+    boolean isFor(String filter) {
+        return this.filter.equals(filter == null ? "" : filter);
+    }
+
+    /**
+     * Cancels the fetch.
+     */
+    void cancel() {
+        cancelled = true;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.combobox;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import com.vaadin.flow.function.SerializableFunction;
+import com.vaadin.flow.function.SerializableSupplier;
+
+/**
+ * List data provider used by {@link ComboBox#setItems(Collection)} when
+ * indexed filtering is enabled. Filtered queries are answered from a
+ * {@link LabelIndex} which is built lazily from the item labels and rebuilt
+ * when the items are refreshed. When the filter text is refined, as when the
+ * user keeps typing, only the matches of the previous filter are checked.
+ *
+ * @param <T>
+ *            the type of the items
+ * @author Vaadin Ltd
+ */
+class IndexedListDataProvider<T> extends LabelFilteringListDataProvider<T> {
+
+    private transient LabelIndex<T> index;
+    private transient String lastFilterText;
+    private transient int[] lastMatches;
+
+    /**
+     * Creates a new data provider for the given items.
+     *
+     * @param items
+     *            the items, not <code>null</code>
+     * @param labelGenerator
+     *            the function generating the label of an item, not
+     *            <code>null</code>
+     * @param localeSupplier
+     *            the supplier of the locale used for case insensitive
+     *            matching, not <code>null</code>
+     */
+    IndexedListDataProvider(Collection<T> items,
+            SerializableFunction<T, String> labelGenerator,
+            SerializableSupplier<Locale> localeSupplier) {
+        super(items, labelGenerator, localeSupplier);
+    }
+
+    /**
+     * Discards the index, so that it gets rebuilt on the next filtered query.
+     */
+    @Override
+    void invalidateMatches() {
+        index = null;
+        lastFilterText = null;
+        lastMatches = null;
+    }
+
+    @Override
+    Stream<T> fetchMatches(String filterText, int offset, int limit) {
+        LabelIndex<T> labelIndex = getIndex();
+        return IntStream.of(findMatches(filterText)).skip(offset).limit(limit)
+                .mapToObj(labelIndex::get);
+    }
+
+    @Override
+    int countMatches(String filterText) {
+        return findMatches(filterText).length;
+    }
+
+    private int[] findMatches(String filterText) {
+        LabelIndex<T> labelIndex = getIndex();
+        // The data communicator asks for the size and the items separately
+        // for the same filter, and a refined filter only needs to check the
+        // previous matches, so the latest matches are kept around
+        if (!filterText.equals(lastFilterText)) {
+            lastMatches = labelIndex.find(filterText, lastFilterText,
+                    lastMatches);
+            lastFilterText = filterText;
+        }
+        return lastMatches;
+    }
+
+    private LabelIndex<T> getIndex() {
+        Locale locale = getLocale();
+        if (index == null || !index.getLocale().equals(locale)) {
+            invalidateMatches();
+            index = new LabelIndex<>(getItems(), getLabelGenerator(), locale);
+        }
+        return index;
+    }
+}
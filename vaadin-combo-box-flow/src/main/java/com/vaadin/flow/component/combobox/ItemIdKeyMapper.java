@@ -0,0 +1,96 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.combobox;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import com.vaadin.flow.data.provider.DataKeyMapper;
+import com.vaadin.flow.function.ValueProvider;
+
+/**
+ * Key mapper which derives the key of an item from a stable id of the item,
+ * so that the same item gets the same key across data communicator resets and
+ * data provider changes.
+ *
+ * @param <T>
+ *            the type of the items
+ * @author Vaadin Ltd
+ */
+class ItemIdKeyMapper<T> implements DataKeyMapper<T> {
+
+    private final ValueProvider<T, ?> idProvider;
+    private final Map<String, T> items = new HashMap<>();
+
+    /**
+     * Creates a new key mapper.
+     *
+     * @param idProvider
+     *            the function providing the id of an item, not
+     *            <code>null</code>
+     */
+    ItemIdKeyMapper(ValueProvider<T, ?> idProvider) {
+        this.idProvider = Objects.requireNonNull(idProvider);
+    }
+
+    @Override
+    public String key(T dataObject) {
+        String key = toKey(dataObject);
+        items.put(key, dataObject);
+        return key;
+    }
+
+    @Override
+    public boolean has(T dataObject) {
+        return items.containsKey(toKey(dataObject));
+    }
+
+    @Override
+    public T get(String key) {
+        return items.get(key);
+    }
+
+    @Override
+    public void remove(T dataObject) {
+        items.remove(toKey(dataObject));
+    }
+
+    @Override
+    public void removeAll() {
+        items.clear();
+    }
+
+    @Override
+    public void refresh(T dataObject) {
+        items.computeIfPresent(toKey(dataObject), (key, item) -> dataObject);
+    }
+
+    @Override
+    public void setIdentifierGetter(ValueProvider<T, Object> identifierGetter) {
+        // The keys are derived from the id provider only
+    }
+
+    private String toKey(T dataObject) {
+        Object id = idProvider.apply(dataObject);
+        if (id == null) {
+            throw new IllegalStateException(String.format(
+                    "The item id provider returned null for the item '%s'",
+                    dataObject));
+        }
+        return String.valueOf(id);
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.combobox;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of generated item labels, evicting the least recently used
+ * label when full.
+ *
+ * @param <T>
+ *            the type of the items
+ * @author Vaadin Ltd
+ */
+final class LabelCache<T> implements Serializable {
+
+    private final int maxSize;
+    private final Map<T, String> labels;
+
+    private long hitCount;
+    private long missCount;
+
+    /**
+     * Creates a new cache.
+     *
+     * @param maxSize
+     *            the maximum number of cached labels, greater than zero
+     */
+    LabelCache(int maxSize) {
+        this.maxSize = maxSize;
+        labels = new LinkedHashMap<T, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<T, String> eldest) {
+                return size() > LabelCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Gets the cached label of the item, counting a hit or a miss.
+     *
+     * @param item
+     *            the item, not <code>null</code>
+     * @return the cached label, or <code>null</code> if not cached
+     */
+    String get(T item) {
+        String label = labels.get(item);
+        if (label == null) {
+            missCount++;
+        } else {
+            hitCount++;
+        }
+        return label;
+    }
+
+    void put(T item, String label) {
+        labels.put(item, label);
+    }
+
+    void remove(T item) {
+        labels.remove(item);
+    }
+
+    void clear() {
+        labels.clear();
+    }
+
+    int getMaxSize() {
+        return maxSize;
+    }
+
+    long getHitCount() {
+        return hitCount;
+    }
+
+    long getMissCount() {
+        return missCount;
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.combobox;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import com.vaadin.flow.data.provider.ListDataProvider;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.function.SerializableFunction;
+import com.vaadin.flow.function.SerializablePredicate;
+import com.vaadin.flow.function.SerializableSupplier;
+
+/**
+ * Base class for the list data providers used by
+ * {@link ComboBox#setItems(Collection)}. Queries filtered with a predicate
+ * created by {@link #createFilter(String)} match the items whose label
+ * contains the filter text, ignoring case, and are answered by the matching
+ * strategy of the subclass, which may keep state between queries.
+ * <p>
+ * Any other query, or a query combined with a filter or sorting configured in
+ * the data provider itself, is handled by {@link ListDataProvider} as usual.
+ *
+ * @param <T>
+ *            the type of the items
+ * @author Vaadin Ltd
+ */
+abstract class LabelFilteringListDataProvider<T> extends ListDataProvider<T> {
+
+    private final SerializableFunction<T, String> labelGenerator;
+    private final SerializableSupplier<Locale> localeSupplier;
+
+    /**
+     * Creates a new data provider for the given items.
+     *
+     * @param items
+     *            the items, not <code>null</code>
+     * @param labelGenerator
+     *            the function generating the label of an item, not
+     *            <code>null</code>
+     * @param localeSupplier
+     *            the supplier of the locale used for case insensitive
+     *            matching, not <code>null</code>
+     */
+    LabelFilteringListDataProvider(Collection<T> items,
+            SerializableFunction<T, String> labelGenerator,
+            SerializableSupplier<Locale> localeSupplier) {
+        super(items);
+        this.labelGenerator = Objects.requireNonNull(labelGenerator);
+        this.localeSupplier = Objects.requireNonNull(localeSupplier);
+    }
+
+    /**
+     * Creates a filter matching the items whose label contains the given text,
+     * ignoring case.
+     *
+     * @param filterText
+     *            the filter text, not <code>null</code>
+     * @return the filter predicate
+     */
+    SerializablePredicate<T> createFilter(String filterText) {
+        return new LabelFilter<>(this, filterText);
+    }
+
+    /**
+     * Discards any state kept for answering the filtered queries, e.g. when
+     * the labels of the items change.
+     */
+    abstract void invalidateMatches();
+
+    /**
+     * Gets the given range of the items matching the filter text.
+     *
+     * @param filterText
+     *            the filter text, not <code>null</code>
+     * @param offset
+     *            the index of the first matching item
+     * @param limit
+     *            the maximum number of items
+     * @return the matching items
+     */
+    abstract Stream<T> fetchMatches(String filterText, int offset, int limit);
+
+    /**
+     * Counts the items matching the filter text.
+     *
+     * @param filterText
+     *            the filter text, not <code>null</code>
+     * @return the number of matching items
+     */
+    abstract int countMatches(String filterText);
+
+    SerializableFunction<T, String> getLabelGenerator() {
+        return labelGenerator;
+    }
+
+    Locale getLocale() {
+        return localeSupplier.get();
+    }
+
+    @Override
+    public Stream<T> fetch(Query<T, SerializablePredicate<T>> query) {
+        String filterText = getLabelFilterText(query);
+        if (filterText == null) {
+            return super.fetch(query);
+        }
+        return fetchMatches(filterText, query.getOffset(), query.getLimit());
+    }
+
+    @Override
+    public int size(Query<T, SerializablePredicate<T>> query) {
+        String filterText = getLabelFilterText(query);
+        if (filterText == null) {
+            return super.size(query);
+        }
+        return countMatches(filterText);
+    }
+
+    @Override
+    public void refreshAll() {
+        invalidateMatches();
+        super.refreshAll();
+    }
+
+    @Override
+    public void refreshItem(T item) {
+        invalidateMatches();
+        super.refreshItem(item);
+    }
+
+    private String getLabelFilterText(
+            Query<T, SerializablePredicate<T>> query) {
+        if (getFilter() != null || getSortComparator() != null
+                || !query.getSortOrders().isEmpty()
+                || query.getInMemorySorting() != null) {
+            return null;
+        }
+        SerializablePredicate<T> filter = query.getFilter().orElse(null);
+        if (filter instanceof LabelFilter
+                && ((LabelFilter<?>) filter).dataProvider == this) {
+            return ((LabelFilter<?>) filter).filterText;
+        }
+        return null;
+    }
+
+    private boolean matches(T item, String filterText) {
+        Locale locale = getLocale();
+        return labelGenerator.apply(item).toLowerCase(locale)
+                .contains(filterText.toLowerCase(locale));
+    }
+
+    /**
+     * Predicate recognized by the data provider, which carries the filter
+     * text so that the query can be answered by the matching strategy.
+     * Testing the predicate directly compares the label of the item.
+     */
+    private static final class LabelFilter<T>
+            implements SerializablePredicate<T> {
+
+        private final LabelFilteringListDataProvider<T> dataProvider;
+        private final String filterText;
+
+        private LabelFilter(LabelFilteringListDataProvider<T> dataProvider,
+                String filterText) {
+            this.dataProvider = dataProvider;
+            this.filterText = filterText;
+        }
+
+        @Override
+        public boolean test(T item) {
+            return dataProvider.matches(item, filterText);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.combobox;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.vaadin.flow.function.SerializableFunction;
+
+/**
+ * Trigram index over the lower case labels of an in-memory item collection.
+ * <p>
+ * A case insensitive substring query only visits the items whose label
+ * contains the rarest trigram of the filter text, instead of generating and
+ * comparing the label of every item in the collection.
+ *
+ * @param <T>
+ *            the type of the indexed items
+ * @author Vaadin Ltd
+ */
+final class LabelIndex<T> implements Serializable {
+
+    private static final int GRAM_LENGTH = 3;
+
+    private static final int[] NO_MATCHES = new int[0];
+
+    private final Locale locale;
+    private final List<T> items;
+    private final String[] labels;
+    private final Map<String, int[]> postings;
+
+    /**
+     * Builds the index for the given items.
+     *
+     * @param items
+     *            the items to index, not <code>null</code>
+     * @param labelGenerator
+     *            the function generating the label of an item
+     * @param locale
+     *            the locale used for converting the labels and the filters to
+     *            lower case
+     */
+    LabelIndex(Collection<T> items,
+            SerializableFunction<T, String> labelGenerator, Locale locale) {
+        this.locale = locale;
+        this.items = new ArrayList<>(items);
+        labels = new String[this.items.size()];
+
+        Map<String, PositionList> builder = new HashMap<>();
+        for (int i = 0; i < labels.length; i++) {
+            String label = labelGenerator.apply(this.items.get(i))
+                    .toLowerCase(locale);
+            labels[i] = label;
+            for (int j = 0; j + GRAM_LENGTH <= label.length(); j++) {
+                builder.computeIfAbsent(
+                        label.substring(j, j + GRAM_LENGTH),
+                        gram -> new PositionList()).add(i);
+            }
+        }
+
+        postings = new HashMap<>(builder.size() * 4 / 3 + 1);
+        builder.forEach((gram, positions) -> postings.put(gram,
+                positions.toArray()));
+    }
+
+    /**
+     * Gets the locale the index was built with.
+     *
+     * @return the locale of the index
+     */
+    Locale getLocale() {
+        return locale;
+    }
+
+    /**
+     * Gets the number of indexed items.
+     *
+     * @return the number of indexed items
+     */
+    int size() {
+        return labels.length;
+    }
+
+    /**
+     * Gets the item at the given position.
+     *
+     * @param position
+     *            the position of the item, as returned by
+     *            {@link #find(String)}
+     * @return the item at the position
+     */
+    T get(int position) {
+        return items.get(position);
+    }
+
+    /**
+     * Finds the positions of the items whose label contains the given filter
+     * text, ignoring case.
+     *
+     * @param filterText
+     *            the filter text, not <code>null</code>
+     * @return the matching positions in ascending order
+     */
+    int[] find(String filterText) {
+        return find(filterText, null, null);
+    }
+
+    /**
+     * Finds the positions of the items whose label contains the given filter
+     * text, ignoring case, reusing the result of a previous query.
+     * <p>
+     * When the filter text contains the previous filter text, as when the user
+     * keeps typing, only the previous matches can match the new filter, so
+     * they are the only candidates to verify unless the index provides fewer.
+     * Otherwise the previous result is ignored.
+     *
+     * @param filterText
+     *            the filter text, not <code>null</code>
+     * @param previousFilterText
+     *            the filter text of the previous query, or <code>null</code>
+     * @param previousMatches
+     *            the result of the previous query, or <code>null</code>
+     * @return the matching positions in ascending order
+     */
+    int[] find(String filterText, String previousFilterText,
+            int[] previousMatches) {
+        String filter = filterText.toLowerCase(locale);
+
+        int[] candidates = null;
+        if (previousMatches != null && previousFilterText != null && filter
+                .contains(previousFilterText.toLowerCase(locale))) {
+            candidates = previousMatches;
+        }
+
+        // Any item matching the filter contains all of its trigrams, so it's
+        // enough to verify the items of the shortest posting list
+        for (int j = 0; j + GRAM_LENGTH <= filter.length(); j++) {
+            int[] positions = postings
+                    .get(filter.substring(j, j + GRAM_LENGTH));
+            if (positions == null) {
+                return NO_MATCHES;
+            }
+            if (candidates == null || positions.length < candidates.length) {
+                candidates = positions;
+            }
+        }
+        if (candidates == null) {
+            return scan(filter);
+        }
+        return verify(candidates, filter);
+    }
+
+    private int[] scan(String filter) {
+        int[] matches = new int[labels.length];
+        int count = 0;
+        for (int i = 0; i < labels.length; i++) {
+            if (labels[i].contains(filter)) {
+                matches[count++] = i;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    private int[] verify(int[] candidates, String filter) {
+        int[] matches = new int[candidates.length];
+        int count = 0;
+        for (int position : candidates) {
+            if (labels[position].contains(filter)) {
+                matches[count++] = position;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    /**
+     * Growable list of ascending positions which ignores duplicates, used while
+     * building the posting lists.
+     */
+    private static final class PositionList implements Serializable {
+        private int[] positions = new int[4];
+        private int size;
+
+        private void add(int position) {
+            if (size > 0 && positions[size - 1] == position) {
+                return;
+            }
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            positions[size++] = position;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(positions, size);
+        }
+    }
+}
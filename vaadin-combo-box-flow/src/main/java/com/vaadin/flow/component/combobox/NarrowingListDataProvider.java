@@ -0,0 +1,101 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.combobox;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.vaadin.flow.function.SerializableFunction;
+import com.vaadin.flow.function.SerializableSupplier;
+
+/**
+ * List data provider used by {@link ComboBox#setItems(Collection)} when
+ * indexed filtering is not enabled. The matches of the latest filter are
+ * kept, so that the size and the items of a filter are found with a single
+ * scan, and so that only the previous matches are checked when the filter
+ * text is refined, as when the user keeps typing.
+ *
+ * @param <T>
+ *            the type of the items
+ * @author Vaadin Ltd
+ */
+class NarrowingListDataProvider<T> extends LabelFilteringListDataProvider<T> {
+
+    private transient Locale lastLocale;
+    private transient String lastFilterText;
+    private transient List<T> lastMatches;
+
+    /**
+     * Creates a new data provider for the given items.
+     *
+     * @param items
+     *            the items, not <code>null</code>
+     * @param labelGenerator
+     *            the function generating the label of an item, not
+     *            <code>null</code>
+     * @param localeSupplier
+     *            the supplier of the locale used for case insensitive
+     *            matching, not <code>null</code>
+     */
+    NarrowingListDataProvider(Collection<T> items,
+            SerializableFunction<T, String> labelGenerator,
+            SerializableSupplier<Locale> localeSupplier) {
+        super(items, labelGenerator, localeSupplier);
+    }
+
+    @Override
+    void invalidateMatches() {
+        lastLocale = null;
+        lastFilterText = null;
+        lastMatches = null;
+    }
+
+    @Override
+    Stream<T> fetchMatches(String filterText, int offset, int limit) {
+        return findMatches(filterText).stream().skip(offset).limit(limit);
+    }
+
+    @Override
+    int countMatches(String filterText) {
+        return findMatches(filterText).size();
+    }
+
+    private List<T> findMatches(String filterText) {
+        Locale locale = getLocale();
+        if (!locale.equals(lastLocale)) {
+            invalidateMatches();
+            lastLocale = locale;
+        }
+        if (filterText.equals(lastFilterText)) {
+            return lastMatches;
+        }
+        // An item matching the refined filter also matches the previous one
+        String filter = filterText.toLowerCase(locale);
+        Collection<T> candidates = lastMatches != null
+                && filter.contains(lastFilterText.toLowerCase(locale))
+                        ? lastMatches
+                        : getItems();
+        lastMatches = candidates.stream()
+                .filter(item -> getLabelGenerator().apply(item)
+                        .toLowerCase(locale).contains(filter))
+                .collect(Collectors.toList());
+        lastFilterText = filterText;
+        return lastMatches;
+    }
+}
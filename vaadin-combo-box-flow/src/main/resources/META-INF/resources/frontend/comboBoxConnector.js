@@ -7,7 +7,139 @@ import { ComboBoxPlaceholder } from '@vaadin/vaadin-combo-box/src/vaadin-combo-b
         return window.Vaadin.Flow.tryCatchWrapper(callback, 'Vaadin Combo Box', 'vaadin-combo-box-flow');
     };
 
+    // Pages of items stored in IndexedDB by cache name, filter and page. The
+    // pages of a cache are cleared when it's first used with another data
+    // version, and the least recently used pages are evicted when a cache
+    // holds more than MAX_PAGES pages. Failures, e.g. when IndexedDB is not
+    // available, are treated as cache misses.
+    const persistentCache = (() => {
+        const DB_NAME = 'vaadin-combo-box-flow-cache';
+        const MAX_PAGES = 500;
+        let dbPromise;
+        const versionChecks = {};
+
+        const openDb = () => dbPromise || (dbPromise = new Promise(resolve => {
+            if (!window.indexedDB) {
+                resolve(null);
+                return;
+            }
+            const request = indexedDB.open(DB_NAME, 2);
+            request.onupgradeneeded = () => {
+                const db = request.result;
+                // The stores only hold cached items, so older layouts are dropped
+                Array.from(db.objectStoreNames).forEach(store => db.deleteObjectStore(store));
+                db.createObjectStore('versions');
+                const pages = db.createObjectStore('pages');
+                pages.createIndex('name', 'name');
+                pages.createIndex('lastUsed', ['name', 'lastUsed']);
+            };
+            request.onsuccess = () => resolve(request.result);
+            request.onerror = () => resolve(null);
+        }));
+
+        const clearOutdatedPages = (db, name, version) => new Promise(resolve => {
+            const transaction = db.transaction(['versions', 'pages'], 'readwrite');
+            const versions = transaction.objectStore('versions');
+            versions.get(name).onsuccess = e => {
+                if (e.target.result === version) {
+                    return;
+                }
+                const cursorRequest = transaction.objectStore('pages').index('name')
+                    .openCursor(IDBKeyRange.only(name));
+                cursorRequest.onsuccess = () => {
+                    const cursor = cursorRequest.result;
+                    if (cursor) {
+                        cursor.delete();
+                        cursor.continue();
+                    }
+                };
+                versions.put(version, name);
+            };
+            transaction.oncomplete = () => resolve(db);
+            transaction.onerror = transaction.onabort = () => resolve(null);
+        });
+
+        const open = (name, version) => openDb().then(db => {
+            if (!db) {
+                return null;
+            }
+            const id = name + '\u0000' + version;
+            return versionChecks[id] || (versionChecks[id] = clearOutdatedPages(db, name, version));
+        });
+
+        const toKey = (name, filter, page) => name + '\u0000' + page + '\u0000' + filter;
+
+        const get = (name, version, filter, page) => open(name, version).then(db => new Promise(resolve => {
+            if (!db) {
+                resolve(undefined);
+                return;
+            }
+            const pages = db.transaction('pages', 'readwrite').objectStore('pages');
+            const key = toKey(name, filter, page);
+            const request = pages.get(key);
+            request.onsuccess = () => {
+                const record = request.result;
+                if (record && record.version === version) {
+                    record.lastUsed = Date.now();
+                    pages.put(record, key);
+                    resolve(record);
+                } else {
+                    resolve(undefined);
+                }
+            };
+            request.onerror = () => resolve(undefined);
+        }));
+
+        const evictLeastRecentlyUsed = (pages, name) => {
+            const countRequest = pages.index('name').count(IDBKeyRange.only(name));
+            countRequest.onsuccess = () => {
+                let excess = countRequest.result - MAX_PAGES;
+                if (excess <= 0) {
+                    return;
+                }
+                const cursorRequest = pages.index('lastUsed')
+                    .openCursor(IDBKeyRange.bound([name, -Infinity], [name, Infinity]));
+                cursorRequest.onsuccess = () => {
+                    const cursor = cursorRequest.result;
+                    if (cursor && excess-- > 0) {
+                        cursor.delete();
+                        cursor.continue();
+                    }
+                };
+            };
+        };
+
+        const put = (name, version, filter, page, size, items) => open(name, version).then(db => {
+            if (db) {
+                const pages = db.transaction('pages', 'readwrite').objectStore('pages');
+                pages.put({name: name, version: version, size: size, items: items, lastUsed: Date.now()},
+                    toKey(name, filter, page));
+                evictLeastRecentlyUsed(pages, name);
+            }
+        });
+
+        return {get: get, put: put};
+    })();
+
+    // Items of the catalogs by URL, shared by the combo boxes of the page. The
+    // catalog URLs are versioned, so the browser may serve them from its cache.
+    const catalogs = {};
+
+    const loadCatalog = url => catalogs[url] || (catalogs[url] =
+        fetch(url, {credentials: 'same-origin'}).then(response => {
+            if (!response.ok) {
+                throw new Error('Loading the combo box catalog ' + url + ' failed with status ' + response.status);
+            }
+            return response.json();
+        }).catch(error => {
+            delete catalogs[url];
+            throw error;
+        }));
+
     window.Vaadin.Flow.comboBoxConnector = {
+        // Item dictionaries shared by the combo boxes of the UI, by id
+        itemDictionaries: {},
+
         initLazy: comboBox => tryCatchWrapper(function (comboBox) {
 
             // Check whether the connector was already initialized for the ComboBox
@@ -22,12 +154,27 @@ import { ComboBoxPlaceholder } from '@vaadin/vaadin-combo-box/src/vaadin-combo-b
             let cache = {};
             let lastFilter = '';
             const placeHolder = new Vaadin.ComboBoxPlaceholder();
-            const MAX_RANGE_COUNT = Math.max(comboBox.pageSize * 2, 500); // Max item count in active range
+            const MAX_RANGE_COUNT = Math.max(comboBox.pageSize * 2, 500); // Max item count in active range requested from the server
+            const MAX_CACHED_FILTERS = 8; // Max number of recent filters with cached pages
+            const MAX_PENDING_CONFIRMATIONS = 100; // Max number of updates not yet confirmed to the server
+
+            // The pages loaded for the current filter and for recent filters, so
+            // that returning to a recent filter, e.g. with backspace, is served
+            // without a round trip. Entries are ordered from the least recently
+            // used. The confirmations of the updates which may have passivated the
+            // keys of an entry's items are held back until the entry is evicted,
+            // so that the server can still resolve the keys of the cached items.
+            const newFilterEntry = filter => ({filter: filter, pages: new Map(), size: 0, updateIds: []});
+            const filterEntries = new Map();
+            let currentEntry = newFilterEntry('');
+            let lastConfirmedFilter;
 
             const serverFacade = (() => {
                 // Private variables
                 let lastFilterSentToServer = '';
                 let dataCommunicatorResetNeeded = false;
+                let requestTime;
+                let latency;
 
                 // Public methods
                 const needsDataCommunicatorReset = () => dataCommunicatorResetNeeded = true;
@@ -38,45 +185,194 @@ import { ComboBoxPlaceholder } from '@vaadin/vaadin-combo-box/src/vaadin-combo-b
 
                     comboBox.$server.setRequestedRange(startIndex, count, filter);
                     lastFilterSentToServer = filter;
+                    requestTime = performance.now();
                     if(dataCommunicatorResetNeeded) {
                         comboBox.$server.resetDataCommunicator();
                         dataCommunicatorResetNeeded = false;
                     }
                 };
+                // Measures the time from requesting data to receiving it as an
+                // exponentially weighted moving average
+                const dataReceived = () => {
+                    if (requestTime !== undefined) {
+                        const sample = performance.now() - requestTime;
+                        latency = latency === undefined ? sample : 0.8 * latency + 0.2 * sample;
+                        requestTime = undefined;
+                    }
+                };
+                const getLatency = () => latency;
 
-                return {needsDataCommunicatorReset, getLastFilterSentToServer, requestData};
+                return {needsDataCommunicatorReset, getLastFilterSentToServer, requestData, dataReceived, getLatency};
 
             })();
 
+            // The debounce times are configured from the server. In the adaptive
+            // mode, they follow the measured latency, using the configured times
+            // as the upper limits. The lower limit for filtering is around the
+            // time between keystrokes when typing, so that a fast server doesn't
+            // get a request for every keystroke.
+            const getDebounceTime = (configured, defaultTime, latencyFactor, minTime) => {
+                const time = configured !== undefined && configured !== null ? configured : defaultTime;
+                const latency = serverFacade.getLatency();
+                if (!comboBox._adaptiveDebounce || latency === undefined) {
+                    return time;
+                }
+                return Math.round(Math.min(time, Math.max(minTime, latency * latencyFactor)));
+            };
+            const getFilterDebounceTime = () => getDebounceTime(comboBox._filterDebounceTime, 500, 2, 150);
+            const getRangeDebounceTime = () => getDebounceTime(comboBox._rangeDebounceTime, 200, 0.5, 50);
+
+            // Empty the comboBox's internal cache without invoking observers by filling
+            // the filteredItems array with placeholders (comboBox will request for data when it
+            // encounters a placeholder)
+            const placeholderPage = page => {
+                const pageStart = parseInt(page) * comboBox.pageSize;
+                const pageEnd = pageStart + comboBox.pageSize;
+                const end = Math.min(pageEnd, comboBox.filteredItems.length);
+                for (let i = pageStart; i < end; i++) {
+                    comboBox.filteredItems[i] = placeHolder;
+                }
+            };
+
             const clearPageCallbacks = (pages = Object.keys(pageCallbacks)) => {
                 // Flush and empty the existing requests
                 pages.forEach(page => {
                     pageCallbacks[page]([], comboBox.size);
                     delete pageCallbacks[page];
+                    placeholderPage(page);
+                });
+            }
 
-                    // Empty the comboBox's internal cache without invoking observers by filling
-                    // the filteredItems array with placeholders (comboBox will request for data when it
-                    // encounters a placeholder)
-                    const pageStart = parseInt(page) * comboBox.pageSize;
-                    const pageEnd = pageStart + comboBox.pageSize;
-                    const end = Math.min(pageEnd, comboBox.filteredItems.length);
-                    for (let i = pageStart; i < end; i++) {
-                        comboBox.filteredItems[i] = placeHolder;
+            // Removes pages from the active range, without removing the loaded
+            // pages from the list. They are kept in the page cache, while the
+            // pending requests are flushed.
+            const releasePageCallbacks = pages => {
+                pages.forEach(page => {
+                    if (!currentEntry.pages.has(parseInt(page))) {
+                        pageCallbacks[page]([], comboBox.size);
                     }
+                    delete pageCallbacks[page];
                 });
-            }
+            };
+
+            // Pages loaded for the current filter are kept, in the order of use,
+            // together with the pages of the recent filters within a budget of
+            // items set by the server. When over the budget, the least recently
+            // used recent filters are evicted first, and then the least recently
+            // used pages of the current filter outside the active range.
+            const getPageCacheSize = () => typeof comboBox._pageCacheSize === 'number' && comboBox._pageCacheSize >= 0
+                ? comboBox._pageCacheSize
+                : Math.max(comboBox.pageSize * 10, 1000);
+
+            const countEntryItems = entry => {
+                let count = 0;
+                entry.pages.forEach(items => count += items.length);
+                return count;
+            };
+
+            const getCachedPage = page => {
+                const items = currentEntry.pages.get(page);
+                if (items) {
+                    currentEntry.pages.delete(page);
+                    currentEntry.pages.set(page, items);
+                }
+                return items;
+            };
+
+            const evictCachedPages = budget => {
+                let count = countEntryItems(currentEntry);
+                filterEntries.forEach(entry => count += countEntryItems(entry));
+                while (count > budget && filterEntries.size > 0) {
+                    const eldest = filterEntries.keys().next().value;
+                    const entry = filterEntries.get(eldest);
+                    count -= countEntryItems(entry);
+                    confirmHeldUpdates(entry);
+                    filterEntries.delete(eldest);
+                }
+                const evicted = [];
+                currentEntry.pages.forEach((items, page) => {
+                    if (count > budget && !pageCallbacks[page]) {
+                        evicted.push(page);
+                        count -= items.length;
+                    }
+                });
+                evicted.forEach(page => {
+                    currentEntry.pages.delete(page);
+                    placeholderPage(page);
+                });
+                reportCacheFootprint();
+            };
+
+            // Reports the number of cached items and pages to the server, if
+            // requested, at most once per FOOTPRINT_REPORT_INTERVAL and only when
+            // changed
+            const FOOTPRINT_REPORT_INTERVAL = 5000;
+            let reportedFootprint;
+            let footprintReportScheduled = false;
+
+            const getCacheFootprint = function () {
+                let itemCount = 0;
+                let pageCount = 0;
+                const addPages = pages => pages.forEach(items => {
+                    itemCount += items.length;
+                    pageCount++;
+                });
+                addPages(currentEntry.pages);
+                filterEntries.forEach(entry => addPages(entry.pages));
+                addPages(Object.keys(cache).map(page => cache[page]));
+                return [itemCount, pageCount];
+            };
+
+            const reportCacheFootprint = function () {
+                if (!comboBox._reportCacheFootprint || footprintReportScheduled) {
+                    return;
+                }
+                footprintReportScheduled = true;
+                setTimeout(tryCatchWrapper(() => {
+                    footprintReportScheduled = false;
+                    const footprint = getCacheFootprint();
+                    if (footprint.join() !== reportedFootprint) {
+                        reportedFootprint = footprint.join();
+                        comboBox.$server.reportCacheFootprint(footprint[0], footprint[1]);
+                    }
+                }), FOOTPRINT_REPORT_INTERVAL);
+            };
+
+            const putCachedPage = (page, items) => {
+                currentEntry.pages.delete(page);
+                currentEntry.pages.set(page, items);
+                evictCachedPages(getPageCacheSize());
+            };
 
             comboBox.dataProvider = function (params, callback) {
                 if (params.pageSize != comboBox.pageSize) {
                     throw 'Invalid pageSize';
                 }
 
+                if (comboBox._catalogUrl) {
+                    // The items of a catalog are filtered on the client
+                    const url = comboBox._catalogUrl;
+                    loadCatalog(url).then(tryCatchWrapper(items => {
+                        if (url === comboBox._catalogUrl) {
+                            normalizeLabels(items);
+                            performClientSideFilter(items, callback, params.page);
+                        }
+                    }), tryCatchWrapper(error => {
+                        // Show an empty list rather than loading forever
+                        console.error(error);
+                        if (url === comboBox._catalogUrl) {
+                            callback([], 0);
+                        }
+                    }));
+                    return;
+                }
+
                 if (comboBox._clientSideFilter) {
                     // For clientside filter we first make sure we have all data which we also
                     // filter based on comboBox.filter. While later we only filter clientside data.
 
                     if (cache[0]) {
-                        performClientSideFilter(cache[0], callback)
+                        performClientSideFilter(cache[0], callback, params.page)
                         return;
 
                     } else {
@@ -94,9 +390,34 @@ import { ComboBoxPlaceholder } from '@vaadin/vaadin-combo-box/src/vaadin-combo-b
                 if (filterChanged) {
                     cache = {};
                     lastFilter = params.filter;
+                    switchFilterEntry(params.filter);
+
+                    const cachedPage = getCachedPage(params.page);
+                    if (cachedPage) {
+                        // Pages were loaded for this filter recently
+                        if (this._debouncer && this._debouncer.isActive()) {
+                            this._debouncer.cancel();
+                        }
+                        clearPageCallbacks();
+                        pageCallbacks[params.page] = callback;
+                        callback(cachedPage, currentEntry.size);
+                        return;
+                    }
+
+                    if (params.page === 0 && !comboBox._clientSideFilter) {
+                        // Show the matching items loaded for a shorter filter until
+                        // the items for the new filter arrive. The request for the
+                        // first page stays pending, so that they are replaced.
+                        const provisionalItems = getProvisionalItems(params.filter);
+                        if (provisionalItems.length > 0) {
+                            comboBox.filteredItems = provisionalItems;
+                            comboBox.size = provisionalItems.length;
+                        }
+                    }
+
                     this._debouncer = Debouncer.debounce(
                         this._debouncer,
-                        timeOut.after(500),
+                        timeOut.after(getFilterDebounceTime()),
                         () => {
                             if (serverFacade.getLastFilterSentToServer() === params.filter) {
                                 // Fixes the case when the filter changes
@@ -117,8 +438,41 @@ import { ComboBoxPlaceholder } from '@vaadin/vaadin-combo-box/src/vaadin-combo-b
                 }
 
                 if (cache[params.page]) {
-                    // This may happen after skipping pages by scrolling fast
+                    // This may happen after skipping pages by scrolling fast,
+                    // or when the page has been prefetched by the server.
+                    // Keep a prefetched page in the active range, so that the
+                    // next requested page is still sequential.
+                    if (pageCallbacks[params.page - 1]) {
+                        pageCallbacks[params.page] = callback;
+                    }
                     commitPage(params.page, callback);
+                } else if (currentEntry.pages.has(params.page)) {
+                    if (pageCallbacks[params.page - 1]) {
+                        pageCallbacks[params.page] = callback;
+                    }
+                    callback(getCachedPage(params.page), currentEntry.size);
+                } else if (isPersistentlyCached() && !params.persistentCacheChecked) {
+                    // Look the page up from the ones stored in earlier sessions
+                    // before requesting it from the server
+                    const filter = params.filter;
+                    persistentCache.get(comboBox._persistentCacheName, comboBox._dataVersion,
+                        filter, params.page).then(tryCatchWrapper(record => {
+                        if (filter !== lastFilter) {
+                            // The filter has been changed meanwhile
+                            return;
+                        }
+                        if (record && !comboBox._clientSideFilter) {
+                            if (pageCallbacks[params.page - 1]) {
+                                pageCallbacks[params.page] = callback;
+                            }
+                            currentEntry.size = record.size;
+                            putCachedPage(params.page, record.items);
+                            callback(record.items, record.size);
+                        } else {
+                            params.persistentCacheChecked = true;
+                            comboBox.dataProvider(params, callback);
+                        }
+                    }));
                 } else {
                     pageCallbacks[params.page] = callback
                     const activePages = Object.keys(pageCallbacks).map(page => parseInt(page));
@@ -127,14 +481,18 @@ import { ComboBoxPlaceholder } from '@vaadin/vaadin-combo-box/src/vaadin-combo-b
 
                     if (activePages.length * params.pageSize > MAX_RANGE_COUNT) {
                         if (params.page === rangeMin) {
-                            clearPageCallbacks([String(rangeMax)]);
+                            releasePageCallbacks([String(rangeMax)]);
                         } else {
-                            clearPageCallbacks([String(rangeMin)]);
+                            releasePageCallbacks([String(rangeMin)]);
                         }
                         comboBox.dataProvider(params, callback);
                     } else if (rangeMax - rangeMin + 1 !== activePages.length) {
-                        // Wasn't a sequential page index, clear the cache so combo-box will request for new pages
-                        clearPageCallbacks();
+                        // Wasn't a sequential page index, e.g. after scrolling fast or
+                        // jumping to the end. Start a new active range from the
+                        // requested page, keeping the loaded pages.
+                        releasePageCallbacks(Object.keys(pageCallbacks)
+                            .filter(page => parseInt(page) !== params.page));
+                        comboBox.dataProvider(params, callback);
                     } else {
                         // The requested page was sequential, extend the requested range
                         const startIndex = params.pageSize * rangeMin;
@@ -145,20 +503,100 @@ import { ComboBoxPlaceholder } from '@vaadin/vaadin-combo-box/src/vaadin-combo-b
                         } else {
                             this._debouncer = Debouncer.debounce(
                                 this._debouncer,
-                                timeOut.after(200),
+                                timeOut.after(getRangeDebounceTime()),
                                 () => serverFacade.requestData(startIndex, endIndex, params));
                         }
                     }
                 }
             }
 
+            // Lower case labels of the items for client-side filtering, computed
+            // once per item instead of on every filter change. The items are
+            // replaced with new objects when updated, so the labels stay valid.
+            const normalizedLabels = new WeakMap();
+
+            const normalizeFilter = filter => filter ? filter.toString().toLowerCase() : '';
+
+            const getNormalizedLabel = function (item) {
+                let label = normalizedLabels.get(item);
+                if (label === undefined) {
+                    label = comboBox._getItemLabel(item).toString().toLowerCase();
+                    normalizedLabels.set(item, label);
+                }
+                return label;
+            };
+
+            const normalizeLabels = function (items) {
+                for (let i = 0; i < items.length; i++) {
+                    getNormalizedLabel(items[i]);
+                }
+            };
+
+            const matchesFilter = (item, normalizedFilter) => getNormalizedLabel(item).indexOf(normalizedFilter) > -1;
+
             comboBox.$connector.filter = tryCatchWrapper(function (item, filter) {
-                filter = filter ? filter.toString().toLowerCase() : '';
-                return comboBox._getItemLabel(item).toString().toLowerCase().indexOf(filter) > -1;
+                return matchesFilter(item, normalizeFilter(filter));
             });
 
-            comboBox.$connector.set = tryCatchWrapper(function (index, items, filter) {
-                if (filter != serverFacade.getLastFilterSentToServer()) {
+            // Expands items sent in the columnar form, where the property names
+            // are listed once in 'columns' and the values of each property are
+            // in the array of the same position in 'values'
+            const expandItems = function (encoded) {
+                if (Array.isArray(encoded)) {
+                    return encoded;
+                }
+                const columns = encoded.columns;
+                const values = encoded.values;
+                const length = columns.length ? values[0].length : 0;
+                const items = new Array(length);
+                for (let i = 0; i < length; i++) {
+                    const item = {};
+                    for (let j = 0; j < columns.length; j++) {
+                        item[columns[j]] = values[j][i];
+                    }
+                    items[i] = item;
+                }
+                if (encoded.missing) {
+                    // Drops the properties which the items didn't have, as
+                    // opposed to the ones whose value is null
+                    for (let j = 0; j < columns.length; j++) {
+                        const missing = encoded.missing[j];
+                        for (let k = 0; k < missing.length; k++) {
+                            delete items[missing[k]][columns[j]];
+                        }
+                    }
+                }
+                return items;
+            };
+
+            // Resolves the items which were only sent as a key from the shared
+            // item dictionary, and adds the complete items to it
+            const resolveDictionaryItems = function (items) {
+                const id = comboBox._itemDictionary;
+                if (!id) {
+                    return items;
+                }
+                const dictionaries = window.Vaadin.Flow.comboBoxConnector.itemDictionaries;
+                const dictionary = dictionaries[id] || (dictionaries[id] = new Map());
+                for (let i = 0; i < items.length; i++) {
+                    const item = items[i];
+                    if (Object.keys(item).length === 1) {
+                        items[i] = dictionary.get(item.key) || item;
+                    } else {
+                        dictionary.set(item.key, item);
+                    }
+                }
+                return items;
+            };
+
+            const setItems = function (index, items) {
+                items = resolveDictionaryItems(expandItems(items));
+
+                if (comboBox._clientSideFilter && index === 0) {
+                    // All the items are sent at once for client-side filtering
+                    normalizeLabels(items);
+                    cache[0] = items;
+                    reportCacheFootprint();
                     return;
                 }
 
@@ -182,20 +620,104 @@ import { ComboBoxPlaceholder } from '@vaadin/vaadin-combo-box/src/vaadin-combo-b
 
                     cache[page] = slice;
                 }
+            };
+
+            const commitActivePages = function () {
+                // We're done applying changes from this batch, resolve pending
+                // callbacks
+                let activePages = Object.getOwnPropertyNames(pageCallbacks);
+                for (let i = 0; i < activePages.length; i++) {
+                    let page = activePages[i];
+
+                    if (cache[page]) {
+                        commitPage(page, pageCallbacks[page]);
+                    }
+                }
+            };
+
+            comboBox.$connector.set = tryCatchWrapper(function (index, items, filter) {
+                if (filter != serverFacade.getLastFilterSentToServer()) {
+                    return;
+                }
+
+                setItems(index, items);
             });
 
-            comboBox.$connector.updateData = tryCatchWrapper(function (items) {
+            // Index of the keys in comboBox.filteredItems, rebuilt when the array
+            // is replaced or found to be out of date
+            let keyIndex = new Map();
+            let keyIndexItems = null;
+
+            const buildKeyIndex = function () {
+                keyIndex = new Map();
+                keyIndexItems = comboBox.filteredItems;
+                for (let i = 0; i < keyIndexItems.length; i++) {
+                    const key = keyIndexItems[i] && keyIndexItems[i].key;
+                    if (key !== undefined && !keyIndex.has(key)) {
+                        keyIndex.set(key, i);
+                    }
+                }
+            };
+
+            // Replaces the items having the same keys as the updated ones in
+            // the given pages
+            const replaceInPages = function (pages, updatedItems) {
+                pages.forEach(pageItems => {
+                    for (let i = 0; i < pageItems.length; i++) {
+                        const updated = pageItems[i] && updatedItems.get(pageItems[i].key);
+                        if (updated) {
+                            pageItems[i] = updated;
+                        }
+                    }
+                });
+            };
+
+            const updateFilteredItems = function (items) {
+                if (!comboBox.filteredItems) {
+                    return;
+                }
+                let indexBuilt = false;
+                if (keyIndexItems !== comboBox.filteredItems) {
+                    buildKeyIndex();
+                    indexBuilt = true;
+                }
+
                 // IE11 doesn't work with the transpiled version of the forEach.
                 for (let i = 0; i < items.length; i++) {
                     let item = items[i];
+                    let index = keyIndex.get(item.key);
+                    const filteredItem = index !== undefined && comboBox.filteredItems[index];
 
-                    for (let j = 0; j < comboBox.filteredItems.length; j++) {
-                        if (comboBox.filteredItems[j].key === item.key) {
-                            comboBox.set('filteredItems.' + j, item);
-                            break;
-                        }
+                    if (!indexBuilt && (!filteredItem || filteredItem.key !== item.key)) {
+                        // Pages may have been loaded into the array since the
+                        // index was built, rebuild it at most once per update
+                        buildKeyIndex();
+                        indexBuilt = true;
+                        index = keyIndex.get(item.key);
+                    }
+
+                    if (index !== undefined && comboBox.filteredItems[index].key === item.key) {
+                        comboBox.set('filteredItems.' + index, item);
                     }
                 }
+            };
+
+            comboBox.$connector.updateData = tryCatchWrapper(function (items) {
+                resolveDictionaryItems(items);
+                updateFilteredItems(items);
+
+                // The filtered items may come from the cached pages again, e.g.
+                // on every filter pass over the items for client-side filtering,
+                // when returning to a recent filter or when a page evicted from
+                // the filtered items is restored. Their labels are normalized
+                // again for the new objects.
+                const updatedItems = new Map();
+                for (let i = 0; i < items.length; i++) {
+                    updatedItems.set(items[i].key, items[i]);
+                }
+                replaceInPages(Object.keys(cache).map(page => cache[page]), updatedItems);
+                replaceInPages(currentEntry.pages, updatedItems);
+                filterEntries.forEach(entry => replaceInPages(entry.pages, updatedItems));
             });
 
             comboBox.$connector.updateSize = tryCatchWrapper(function (newSize) {
@@ -215,7 +737,12 @@ import { ComboBoxPlaceholder } from '@vaadin/vaadin-combo-box/src/vaadin-combo-b
             comboBox.$connector.reset = tryCatchWrapper(function () {
                 clearPageCallbacks();
                 cache = {};
+                filterEntries.forEach(confirmHeldUpdates);
+                filterEntries.clear();
+                confirmHeldUpdates(currentEntry);
+                currentEntry = newFilterEntry(lastFilter);
                 comboBox.clearCache();
+                reportCacheFootprint();
             });
 
             comboBox.$connector.confirm = tryCatchWrapper(function (id, filter) {
@@ -224,33 +751,158 @@ import { ComboBoxPlaceholder } from '@vaadin/vaadin-combo-box/src/vaadin-combo-b
                     return;
                 }
 
-                // We're done applying changes from this batch, resolve pending
-                // callbacks
-                let activePages = Object.getOwnPropertyNames(pageCallbacks);
-                for (let i = 0; i < activePages.length; i++) {
-                    let page = activePages[i];
+                commitActivePages();
+                serverFacade.dataReceived();
 
-                    if (cache[page]) {
-                        commitPage(page, pageCallbacks[page]);
+                // Let server know we're done
+                confirmUpdate(id, filter);
+            });
+
+            // Applies a whole update from the server in one call: the new size,
+            // the ranges of items as {start, items} objects and the
+            // confirmation of the update
+            // Items sent with a shared item dictionary are sent only once, so
+            // they are stored even if the update is discarded
+            const storeDictionaryItems = function (ranges) {
+                if (comboBox._itemDictionary) {
+                    for (let i = 0; i < ranges.length; i++) {
+                        resolveDictionaryItems(expandItems(ranges[i].items));
+                    }
+                }
+            };
+
+            comboBox.$connector.applyUpdate = tryCatchWrapper(function (size, ranges, id, filter) {
+                if (filter != serverFacade.getLastFilterSentToServer()) {
+                    storeDictionaryItems(ranges);
+                    comboBox.$connector.updateSize(size);
+                    return;
+                }
+
+                // The items may be outdated if a recent filter has been served
+                // from the cache after the request
+                if (filter === lastFilter) {
+                    comboBox.$connector.updateSize(size);
+                    currentEntry.size = size;
+                    for (let i = 0; i < ranges.length; i++) {
+                        setItems(ranges[i].start, ranges[i].items);
                     }
+                    commitActivePages();
+                } else {
+                    storeDictionaryItems(ranges);
                 }
+                serverFacade.dataReceived();
 
                 // Let server know we're done
-                comboBox.$server.confirmUpdate(id);
+                confirmUpdate(id, filter);
             });
 
+            const confirmHeldUpdates = function (entry) {
+                entry.updateIds.forEach(id => comboBox.$server.confirmUpdate(id));
+                entry.updateIds = [];
+            };
+
+            const countHeldUpdates = function () {
+                let count = currentEntry.updateIds.length;
+                filterEntries.forEach(entry => count += entry.updateIds.length);
+                return count;
+            };
+
+            const evictFilterEntries = function () {
+                while (filterEntries.size > MAX_CACHED_FILTERS
+                    || (filterEntries.size > 0 && countHeldUpdates() > MAX_PENDING_CONFIRMATIONS)) {
+                    const eldest = filterEntries.keys().next().value;
+                    confirmHeldUpdates(filterEntries.get(eldest));
+                    filterEntries.delete(eldest);
+                }
+                if (countHeldUpdates() > MAX_PENDING_CONFIRMATIONS) {
+                    // The keys of the loaded pages outside the active range may be
+                    // passivated once confirmed
+                    confirmHeldUpdates(currentEntry);
+                    evictCachedPages(0);
+                }
+            };
+
+            // Gets the first page of the items matching the given filter among the
+            // items of the most specific recent filter it extends, e.g. the items
+            // loaded for 'ab' when the filter is 'abc'
+            const getProvisionalItems = function (filter) {
+                const normalizedFilter = normalizeFilter(filter);
+                let source;
+                let sourceFilter;
+                filterEntries.forEach(entry => {
+                    const entryFilter = normalizeFilter(entry.filter);
+                    if (normalizedFilter.indexOf(entryFilter) === 0
+                        && (!source || entryFilter.length > sourceFilter.length)) {
+                        source = entry;
+                        sourceFilter = entryFilter;
+                    }
+                });
+                const items = [];
+                if (!source) {
+                    return items;
+                }
+                const pages = [];
+                source.pages.forEach((pageItems, page) => pages.push(page));
+                pages.sort((a, b) => a - b);
+                for (let i = 0; i < pages.length && items.length < comboBox.pageSize; i++) {
+                    const pageItems = source.pages.get(pages[i]);
+                    for (let j = 0; j < pageItems.length && items.length < comboBox.pageSize; j++) {
+                        if (matchesFilter(pageItems[j], normalizedFilter)) {
+                            items.push(pageItems[j]);
+                        }
+                    }
+                }
+                return items;
+            };
+
+            // Makes the entry of the given filter the current one, keeping the
+            // previous one as a recent filter if it has loaded pages
+            const switchFilterEntry = function (filter) {
+                if (currentEntry.pages.size > 0) {
+                    filterEntries.set(currentEntry.filter, currentEntry);
+                } else {
+                    confirmHeldUpdates(currentEntry);
+                }
+                currentEntry = filterEntries.get(filter) || newFilterEntry(filter);
+                filterEntries.delete(filter);
+                evictFilterEntries();
+            };
+
+            // An update passivates the keys of the items which were sent for the
+            // previous filter, so its confirmation is held back while the pages of
+            // that filter are cached
+            const confirmUpdate = function (id, filter) {
+                const previousFilter = lastConfirmedFilter;
+                lastConfirmedFilter = filter;
+
+                const holder = previousFilter === currentEntry.filter
+                    ? currentEntry : filterEntries.get(previousFilter);
+                if (holder) {
+                    holder.updateIds.push(id);
+                    evictFilterEntries();
+                } else {
+                    comboBox.$server.confirmUpdate(id);
+                }
+            };
+
+            // Keep the selected key in sync when the user selects an item, the
+            // server sends it again only when it's changed on the server
+            comboBox.addEventListener('selected-item-changed', tryCatchWrapper(e => {
+                const selectedItem = e.detail.value;
+                comboBox._selectedKey = selectedItem ? selectedItem.key : '';
+            }));
+
             customElements.whenDefined('vaadin-combo-box').then(tryCatchWrapper(() => {
                 const _isItemSelected = comboBox.$.overlay._isItemSelected;
                 // Override comboBox's _isItemSelected logic to handle remapped items
                 comboBox.$.overlay._isItemSelected = (item, selectedItem, itemIdPath) => {
                     let selected = _isItemSelected.call(comboBox, item, selectedItem, itemIdPath);
 
-                    if (comboBox._selectedKey) {
-                        if (comboBox.filteredItems.indexOf(selectedItem) > -1) {
-                            delete comboBox._selectedKey;
-                        } else {
-                            selected = selected || item.key === comboBox._selectedKey;
-                        }
+                    // The server only sends the selected key when it changes,
+                    // so it's kept even when the selected item is found. It's
+                    // compared directly, as this runs for every rendered item.
+                    if (!selected && comboBox._selectedKey) {
+                        selected = item.key === comboBox._selectedKey;
                     }
 
                     return selected;
@@ -320,16 +972,26 @@ import { ComboBoxPlaceholder } from '@vaadin/vaadin-combo-box/src/vaadin-combo-b
                 }
             });
 
+            // The keys of the items are only stable across sessions when derived
+            // from the item ids, not when shared through an item dictionary
+            const isPersistentlyCached = () => comboBox._persistentCacheName && comboBox._dataVersion
+                && !comboBox._itemDictionary;
+
             const commitPage = tryCatchWrapper(function (page, callback) {
                 let data = cache[page];
 
                 if (comboBox._clientSideFilter) {
-                    performClientSideFilter(data, callback)
+                    performClientSideFilter(data, callback, parseInt(page))
 
                 } else {
                     // Remove the data if server-side filtering, but keep it for client-side
-                    // filtering
+                    // filtering. The page is kept for the current filter as well.
                     delete cache[page];
+                    putCachedPage(parseInt(page), data);
+                    if (isPersistentlyCached()) {
+                        persistentCache.put(comboBox._persistentCacheName, comboBox._dataVersion,
+                            lastFilter, parseInt(page), comboBox.size, data);
+                    }
 
                     // FIXME: It may be that we ought to provide data.length instead of
                     // comboBox.size and remove updateSize function.
@@ -341,16 +1003,37 @@ import { ComboBoxPlaceholder } from '@vaadin/vaadin-combo-box/src/vaadin-combo-b
             // and submitting the filtered items to specified callback.
             // The filter used is the one from combobox, not the lastFilter stored since
             // that may not reflect user's input.
-            const performClientSideFilter = tryCatchWrapper(function (page, callback) {
+            // All the items are in one array, which may be larger than a page, so
+            // the requested page is sliced from the filtered items.
+            const performClientSideFilter = tryCatchWrapper(function (items, callback, page) {
 
-                let filteredItems = page;
+                let filteredItems = items;
 
                 if (comboBox.filter) {
-                    filteredItems = page.filter(item =>
-                        comboBox.$connector.filter(item, comboBox.filter));
+                    const filter = normalizeFilter(comboBox.filter);
+                    filteredItems = items.filter(item => matchesFilter(item, filter));
                 }
 
-                callback(filteredItems, filteredItems.length);
+                const start = (page || 0) * comboBox.pageSize;
+                callback(filteredItems.slice(start, start + comboBox.pageSize), filteredItems.length);
+            });
+
+            // Asks the server for the first page before the drop-down is opened,
+            // unless the items have already been received
+            const prefetch = tryCatchWrapper(function () {
+                if (!comboBox.opened && !cache[0] && currentEntry.pages.size === 0) {
+                    comboBox.$server.prefetch();
+                }
+            });
+            const requestIdle = window.requestIdleCallback || (callback => setTimeout(callback, 1));
+
+            comboBox.$connector.schedulePrefetch = tryCatchWrapper(function (policy) {
+                comboBox.removeEventListener('focus', prefetch);
+                if (policy === 'ON_FOCUS') {
+                    comboBox.addEventListener('focus', prefetch);
+                } else if (policy === 'ON_IDLE_AFTER_ATTACH') {
+                    requestIdle(prefetch);
+                }
             });
 
             // https://github.com/vaadin/vaadin-combo-box-flow/issues/232
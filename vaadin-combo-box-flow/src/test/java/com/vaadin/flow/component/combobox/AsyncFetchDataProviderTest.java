@@ -0,0 +1,124 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.combobox;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.Query;
+
+public class AsyncFetchDataProviderTest {
+
+    private AtomicInteger fetches = new AtomicInteger();
+    private AtomicInteger sizes = new AtomicInteger();
+    private AsyncFetchDataProvider<String> dataProvider;
+
+    @Before
+    public void setup() {
+        dataProvider = new AsyncFetchDataProvider<>(
+                DataProvider.fromFilteringCallbacks(query -> {
+                    fetches.incrementAndGet();
+                    return IntStream
+                            .range(query.getOffset(),
+                                    Math.min(query.getOffset()
+                                            + query.getLimit(), 30))
+                            .mapToObj(i -> query.getFilter().orElse("") + i);
+                }, query -> {
+                    sizes.incrementAndGet();
+                    return 30;
+                }));
+    }
+
+    @Test
+    public void load_storedRangeIsServedWithoutQueryingDataProvider() {
+        Assert.assertFalse(dataProvider.isLoaded("a", 10, 10));
+
+        dataProvider.store(dataProvider.load("a", 10, 10, Runnable::run)
+                .join());
+        Assert.assertEquals(1, fetches.get());
+        Assert.assertEquals(1, sizes.get());
+        Assert.assertTrue(dataProvider.isLoaded("a", 10, 10));
+        Assert.assertTrue(dataProvider.isLoaded("a", 12, 5));
+
+        Assert.assertEquals(30, dataProvider.size(new Query<>("a")));
+        Assert.assertEquals(Arrays.asList("a12", "a13"), fetch("a", 12, 2));
+        Assert.assertEquals(1, fetches.get());
+        Assert.assertEquals(1, sizes.get());
+    }
+
+    @Test
+    public void load_sameFilter_sizeIsNotQueriedAgain() {
+        dataProvider.store(dataProvider.load("a", 0, 10, Runnable::run)
+                .join());
+        dataProvider.store(dataProvider.load("a", 10, 10, Runnable::run)
+                .join());
+        Assert.assertEquals(1, sizes.get());
+
+        dataProvider.store(dataProvider.load("b", 0, 10, Runnable::run)
+                .join());
+        Assert.assertEquals(2, sizes.get());
+    }
+
+    @Test
+    public void load_estimatedSize_sizeIsQueriedAfterEachFetch() {
+        dataProvider.setSizeEstimated(true);
+        dataProvider.store(dataProvider.load("a", 0, 10, Runnable::run)
+                .join());
+        Assert.assertEquals(2, sizes.get());
+
+        dataProvider.store(dataProvider.load("a", 10, 10, Runnable::run)
+                .join());
+        Assert.assertEquals(4, sizes.get());
+
+        dataProvider.size(new Query<>("a"));
+        Assert.assertEquals(5, sizes.get());
+    }
+
+    @Test
+    public void queryOutsideStoredRange_delegatesToDataProvider() {
+        dataProvider.store(dataProvider.load("a", 0, 10, Runnable::run)
+                .join());
+
+        Assert.assertFalse(dataProvider.isLoaded("b", 0, 10));
+        Assert.assertFalse(dataProvider.isLoaded("a", 5, 10));
+        Assert.assertEquals(Arrays.asList("a9", "a10"), fetch("a", 9, 2));
+        Assert.assertEquals(2, fetches.get());
+    }
+
+    @Test
+    public void clear_storedRangeIsDiscarded() {
+        dataProvider.store(dataProvider.load("a", 0, 10, Runnable::run)
+                .join());
+        dataProvider.clear();
+
+        Assert.assertFalse(dataProvider.isLoaded("a", 0, 10));
+    }
+
+    private List<String> fetch(String filter, int offset, int limit) {
+        return dataProvider.fetch(new Query<>(offset, limit,
+                Collections.emptyList(), null, filter))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.combobox;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.flow.internal.JsonUtils;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+import elemental.json.JsonValue;
+
+public class ColumnarItemEncoderTest {
+
+    @Test
+    public void encode_propertyNamesAreListedOnce() {
+        JsonObject encoded = ColumnarItemEncoder
+                .encode(Arrays.asList(item("1", "foo"), item("2", "bar")));
+
+        Assert.assertEquals("{\"columns\":[\"key\",\"label\"],"
+                + "\"values\":[[\"1\",\"2\"],[\"foo\",\"bar\"]]}",
+                encoded.toJson());
+    }
+
+    @Test
+    public void encode_missingProperties_areLeftOutOfExpandedItems() {
+        JsonObject first = item("1", "foo");
+        JsonObject second = item("2", "bar");
+        second.put("selected", true);
+        JsonObject third = Json.createObject();
+        third.put("key", "3");
+
+        List<JsonValue> items = Arrays.asList(first, second, third);
+        JsonObject encoded = ColumnarItemEncoder.encode(items);
+
+        Assert.assertEquals(items.stream().map(JsonValue::toJson)
+                .collect(Collectors.toList()), expand(encoded));
+    }
+
+    @Test
+    public void encode_nullProperties_areKeptApartFromMissingOnes() {
+        JsonObject first = item("1", "foo");
+        first.put("selected", Json.createNull());
+        JsonObject second = item("2", "bar");
+        JsonObject third = item("3", "baz");
+        third.put("label", Json.createNull());
+        third.put("selected", true);
+
+        List<JsonValue> items = Arrays.asList(first, second, third);
+        JsonObject encoded = ColumnarItemEncoder.encode(items);
+
+        Assert.assertEquals(items.stream().map(JsonValue::toJson)
+                .collect(Collectors.toList()), expand(encoded));
+        Assert.assertEquals("[[],[],[1]]",
+                encoded.getArray(ColumnarItemEncoder.MISSING).toJson());
+    }
+
+    @Test
+    public void encode_noMissingProperties_missingIsLeftOut() {
+        JsonObject first = item("1", "foo");
+        first.put("selected", Json.createNull());
+        JsonObject second = item("2", "bar");
+        second.put("selected", true);
+
+        JsonObject encoded = ColumnarItemEncoder
+                .encode(Arrays.asList(first, second));
+
+        Assert.assertFalse(encoded.hasKey(ColumnarItemEncoder.MISSING));
+    }
+
+    @Test
+    public void encode_noItems_emptyColumns() {
+        JsonObject encoded = ColumnarItemEncoder
+                .encode(Collections.emptyList());
+
+        Assert.assertEquals("{\"columns\":[],\"values\":[]}",
+                encoded.toJson());
+    }
+
+    @Test
+    public void encode_largePage_payloadIsSmaller() {
+        List<JsonValue> items = IntStream.range(0, 500)
+                .mapToObj(i -> item(String.valueOf(i), "Item " + i))
+                .collect(Collectors.toList());
+
+        int plainLength = items.stream().collect(JsonUtils.asArray()).toJson()
+                .length();
+        int encodedLength = ColumnarItemEncoder.encode(items).toJson()
+                .length();
+
+        Assert.assertTrue(
+                "Expected the columnar payload to be at least a third "
+                        + "smaller, but it was " + encodedLength
+                        + " characters compared to " + plainLength,
+                encodedLength * 3 < plainLength * 2);
+    }
+
+    private static JsonObject item(String key, String label) {
+        JsonObject item = Json.createObject();
+        item.put("key", key);
+        item.put("label", label);
+        return item;
+    }
+
+    // Same expansion as in the connector
+    private static List<String> expand(JsonObject encoded) {
+        JsonArray columns = encoded.getArray(ColumnarItemEncoder.COLUMNS);
+        JsonArray values = encoded.getArray(ColumnarItemEncoder.VALUES);
+        List<JsonObject> items = new ArrayList<>();
+        for (int i = 0; i < values.getArray(0).length(); i++) {
+            JsonObject item = Json.createObject();
+            for (int j = 0; j < columns.length(); j++) {
+                item.put(columns.getString(j), values.getArray(j).get(i));
+            }
+            items.add(item);
+        }
+        if (encoded.hasKey(ColumnarItemEncoder.MISSING)) {
+            JsonArray missing = encoded.getArray(ColumnarItemEncoder.MISSING);
+            for (int j = 0; j < columns.length(); j++) {
+                JsonArray indexes = missing.getArray(j);
+                for (int k = 0; k < indexes.length(); k++) {
+                    items.get((int) indexes.getNumber(k))
+                            .remove(columns.getString(j));
+                }
+            }
+        }
+        return items.stream().map(JsonValue::toJson)
+                .collect(Collectors.toList());
+    }
+}
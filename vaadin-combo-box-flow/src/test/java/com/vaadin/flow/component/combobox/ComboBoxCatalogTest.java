@@ -0,0 +1,268 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.combobox;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import javax.servlet.ServletContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.vaadin.flow.data.provider.ListDataProvider;
+import com.vaadin.flow.internal.CurrentInstance;
+import com.vaadin.flow.server.VaadinContext;
+import com.vaadin.flow.server.VaadinService;
+import com.vaadin.flow.server.VaadinServletContext;
+
+public class ComboBoxCatalogTest {
+
+    private final VaadinContext context = mockContext();
+
+    @After
+    public void clearCurrentInstances() {
+        CurrentInstance.clearAll();
+    }
+
+    @Test
+    public void register_versionDependsOnContent() {
+        ComboBoxCatalog<String> catalog = register("foo", "bar");
+        Assert.assertEquals(catalog.getVersion(),
+                register("foo", "bar").getVersion());
+        Assert.assertNotEquals(catalog.getVersion(),
+                register("foo", "baz").getVersion());
+        Assert.assertEquals(
+                "/combo-box-catalog/letters/" + catalog.getVersion() + ".json",
+                catalog.getUrl());
+        Assert.assertEquals(
+                "[{\"key\":\"FOO\",\"label\":\"foo\"},{\"key\":\"BAR\",\"label\":\"bar\"}]",
+                new String(catalog.getJson(), StandardCharsets.UTF_8));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void register_invalidName_throws() {
+        ComboBoxCatalog.register(context, "a/b", Arrays.asList("foo"),
+                String::toUpperCase, String::valueOf);
+    }
+
+    @Test
+    public void register_catalogsAreKeptPerContext() {
+        ComboBoxCatalog<String> catalog = register("foo", "bar");
+        Assert.assertSame(catalog, ComboBoxCatalog.get(context, "letters"));
+        Assert.assertNull(ComboBoxCatalog.get(mockContext(), "letters"));
+
+        Assert.assertTrue(ComboBoxCatalog.unregister(context, "letters"));
+        Assert.assertNull(ComboBoxCatalog.get(context, "letters"));
+        Assert.assertFalse(ComboBoxCatalog.unregister(context, "letters"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void register_servletContext_urlStartsWithContextPath() {
+        ServletContext servletContext = Mockito.mock(ServletContext.class);
+        Mockito.when(servletContext.getContextPath()).thenReturn("/app");
+        VaadinServletContext servletVaadinContext = Mockito
+                .mock(VaadinServletContext.class);
+        Mockito.when(servletVaadinContext.getContext())
+                .thenReturn(servletContext);
+        Mockito.when(servletVaadinContext.getAttribute(
+                Mockito.any(Class.class), Mockito.any(Supplier.class)))
+                .thenAnswer(invocation -> ((Supplier<?>) invocation
+                        .getArguments()[1]).get());
+
+        ComboBoxCatalog<String> catalog = ComboBoxCatalog.register(
+                servletVaadinContext, "letters", Arrays.asList("foo"),
+                String::toUpperCase, String::valueOf);
+        Assert.assertEquals("/app/combo-box-catalog/letters/"
+                + catalog.getVersion() + ".json", catalog.getUrl());
+    }
+
+    @Test
+    public void doGet_catalogIsServedWithPublicCacheHeaders()
+            throws IOException {
+        ComboBoxCatalog<String> catalog = register("foo", "bar");
+        HttpServletResponse response = mockResponse();
+
+        doGet(mockRequest(catalog), response);
+
+        Mockito.verify(response).setHeader("ETag",
+                '"' + catalog.getVersion() + '"');
+        Mockito.verify(response).setHeader("Cache-Control",
+                "public, max-age=31536000, immutable");
+        Mockito.verify(response.getOutputStream()).write(catalog.getJson());
+    }
+
+    @Test
+    public void doGet_matchingETag_notModified() throws IOException {
+        ComboBoxCatalog<String> catalog = register("foo", "bar");
+        HttpServletRequest request = mockRequest(catalog);
+        Mockito.when(request.getHeader("If-None-Match"))
+                .thenReturn('"' + catalog.getVersion() + '"');
+        HttpServletResponse response = mockResponse();
+
+        doGet(request, response);
+
+        Mockito.verify(response).setStatus(304);
+        Mockito.verify(response, Mockito.never()).getOutputStream();
+    }
+
+    @Test
+    public void doGet_previousVersion_isStillServed() throws IOException {
+        ComboBoxCatalog<String> catalog = register("foo", "bar");
+        register("foo", "baz");
+        HttpServletResponse response = mockResponse();
+
+        doGet(mockRequest(catalog), response);
+
+        Mockito.verify(response.getOutputStream()).write(catalog.getJson());
+    }
+
+    @Test
+    public void doGet_olderVersion_notFound() throws IOException {
+        ComboBoxCatalog<String> catalog = register("foo", "bar");
+        register("foo", "baz");
+        register("foo", "qux");
+        HttpServletResponse response = mockResponse();
+
+        doGet(mockRequest(catalog), response);
+
+        Mockito.verify(response).sendError(Mockito.eq(404),
+                Mockito.anyString());
+    }
+
+    @Test
+    public void doGet_otherPath_notFound() throws IOException {
+        HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        Mockito.when(request.getPathInfo()).thenReturn("/foo");
+        HttpServletResponse response = mockResponse();
+
+        doGet(request, response);
+
+        Mockito.verify(response).sendError(Mockito.eq(404),
+                Mockito.anyString());
+    }
+
+    @Test
+    public void setCatalog_itemsAndKeysAreTakenFromCatalog()
+            throws Exception {
+        ComboBoxCatalog<String> catalog = register("foo", "bar");
+        ComboBox<String> comboBox = new ComboBox<>();
+        comboBox.setCatalog(catalog);
+        Assert.assertEquals(catalog.getUrl(),
+                comboBox.getElement().getProperty("_catalogUrl"));
+
+        Method presentationToModel = ComboBox.class.getDeclaredMethod(
+                "presentationToModel", ComboBox.class, String.class);
+        presentationToModel.setAccessible(true);
+        Assert.assertEquals("bar",
+                presentationToModel.invoke(null, comboBox, "BAR"));
+
+        comboBox.setItems("baz");
+        Assert.assertNull(comboBox.getCatalog());
+        Assert.assertNull(comboBox.getElement().getProperty("_catalogUrl"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void setCatalog_serialized_catalogIsLookedUpByName()
+            throws Exception {
+        ComboBoxCatalog<String> catalog = register("foo", "bar");
+        ComboBox<String> comboBox = new ComboBox<>();
+        comboBox.setCatalog(catalog);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(comboBox);
+        }
+        String serialized = new String(bytes.toByteArray(),
+                StandardCharsets.ISO_8859_1);
+        Assert.assertFalse("The catalog content should not be serialized",
+                serialized.contains("\"label\":\"foo\""));
+
+        ComboBox<String> deserialized;
+        try (ObjectInputStream in = new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray()))) {
+            deserialized = (ComboBox<String>) in.readObject();
+        }
+        VaadinService service = Mockito.mock(VaadinService.class);
+        Mockito.when(service.getContext()).thenReturn(context);
+        VaadinService.setCurrent(service);
+        Assert.assertSame(catalog, deserialized.getCatalog());
+        Assert.assertEquals(Arrays.asList("foo", "bar"),
+                ((ListDataProvider<String>) deserialized.getDataProvider())
+                        .getItems());
+    }
+
+    private ComboBoxCatalog<String> register(String... items) {
+        return ComboBoxCatalog.register(context, "letters",
+                Arrays.asList(items), String::toUpperCase, String::valueOf);
+    }
+
+    private void doGet(HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        new ComboBoxCatalogServlet() {
+            @Override
+            VaadinContext getVaadinContext() {
+                return context;
+            }
+        }.doGet(request, response);
+    }
+
+    private static HttpServletRequest mockRequest(
+            ComboBoxCatalog<?> catalog) {
+        HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        String servletPath = "/combo-box-catalog";
+        Mockito.when(request.getPathInfo()).thenReturn(
+                catalog.getUrl().substring(servletPath.length()));
+        return request;
+    }
+
+    private static HttpServletResponse mockResponse() throws IOException {
+        HttpServletResponse response = Mockito
+                .mock(HttpServletResponse.class);
+        ServletOutputStream out = Mockito.mock(ServletOutputStream.class);
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+        return response;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static VaadinContext mockContext() {
+        Map<Class<?>, Object> attributes = new HashMap<>();
+        VaadinContext context = Mockito.mock(VaadinContext.class);
+        Mockito.when(context.getAttribute(Mockito.any(Class.class),
+                Mockito.any(Supplier.class))).thenAnswer(invocation -> {
+                    Object[] arguments = invocation.getArguments();
+                    return attributes.computeIfAbsent((Class<?>) arguments[0],
+                            type -> ((Supplier<?>) arguments[1]).get());
+                });
+        return context;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2000-2019 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.combobox;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ComboBoxSessionSizeTest {
+
+    private static final int ITEM_COUNT = 2000;
+
+    @Test
+    public void evictUnusedKeys_sessionSizeDoesNotGrowWithSetValues()
+            throws IOException {
+        ComboBox<String> comboBox = createComboBox(true);
+        int initialSize = serializedSize(comboBox);
+
+        setAllValues(comboBox);
+        int finalSize = serializedSize(comboBox);
+
+        Assert.assertTrue(
+                "Session size should stay the same, but grew from "
+                        + initialSize + " to " + finalSize + " bytes",
+                finalSize < initialSize + 1000);
+    }
+
+    @Test
+    public void evictUnusedKeys_sessionIsSmallerThanWithoutEviction()
+            throws IOException {
+        ComboBox<String> keeping = createComboBox(false);
+        ComboBox<String> evicting = createComboBox(true);
+        setAllValues(keeping);
+        setAllValues(evicting);
+
+        int keepingSize = serializedSize(keeping);
+        int evictingSize = serializedSize(evicting);
+        Assert.assertTrue(
+                "Expected the session to be smaller with key eviction, but it "
+                        + "was " + evictingSize + " bytes compared to "
+                        + keepingSize,
+                evictingSize + ITEM_COUNT * 10 < keepingSize);
+    }
+
+    @Test
+    public void evictUnusedKeys_valueIsResolvedFromItsKey() throws Exception {
+        ComboBox<String> comboBox = createComboBox(true);
+        setAllValues(comboBox);
+
+        Method presentationToModel = ComboBox.class.getDeclaredMethod(
+                "presentationToModel", ComboBox.class, String.class);
+        presentationToModel.setAccessible(true);
+        String key = comboBox.getElement().getProperty("value");
+        Assert.assertEquals("Item " + (ITEM_COUNT - 1),
+                presentationToModel.invoke(null, comboBox, key));
+    }
+
+    private static ComboBox<String> createComboBox(boolean evictUnusedKeys) {
+        ComboBox<String> comboBox = new ComboBox<>();
+        comboBox.setEvictUnusedKeys(evictUnusedKeys);
+        List<String> items = IntStream.range(0, ITEM_COUNT)
+                .mapToObj(i -> "Item " + i).collect(Collectors.toList());
+        comboBox.setItems(items);
+        return comboBox;
+    }
+
+    private static void setAllValues(ComboBox<String> comboBox) {
+        IntStream.range(0, ITEM_COUNT)
+                .forEach(i -> comboBox.setValue("Item " + i));
+    }
+
+    private static int serializedSize(ComboBox<String> comboBox)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(comboBox);
+        }
+        return bytes.size();
+    }
+}
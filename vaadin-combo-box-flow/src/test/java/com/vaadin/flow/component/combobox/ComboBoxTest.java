@@ -17,10 +17,21 @@ package com.vaadin.flow.component.combobox;
 
 import static org.junit.Assert.assertEquals;
 
+import java.io.Serializable;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import org.junit.Assert;
 import org.junit.Rule;
@@ -34,13 +45,19 @@ import com.vaadin.flow.component.UI;
 import com.vaadin.flow.data.binder.Binder;
 import com.vaadin.flow.data.provider.DataProvider;
 import com.vaadin.flow.data.provider.ListDataProvider;
+import com.vaadin.flow.data.provider.Query;
 import com.vaadin.flow.di.Instantiator;
 import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.function.SerializablePredicate;
+import com.vaadin.flow.internal.change.MapPutChange;
+import com.vaadin.flow.server.Command;
 import com.vaadin.flow.server.VaadinService;
 import com.vaadin.flow.server.VaadinSession;
 import com.vaadin.flow.shared.Registration;
 
 import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
 
 public class ComboBoxTest {
 
@@ -63,6 +80,22 @@ public class ComboBoxTest {
         CATEGORY_1, CATEGORY_2, CATEGORY_3;
     }
 
+    private static class AccessQueueUI extends UI {
+        private final List<Command> accessCommands = new ArrayList<>();
+
+        @Override
+        public Future<Void> access(Command command) {
+            accessCommands.add(command);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        private void runAccessCommands() {
+            List<Command> commands = new ArrayList<>(accessCommands);
+            accessCommands.clear();
+            commands.forEach(Command::execute);
+        }
+    }
+
     private static class Bean {
         Category category;
 
@@ -329,6 +362,980 @@ public class ComboBoxTest {
         Assert.assertEquals("foo", field.getElement().getPropertyRaw("value"));
     }
 
+    @Test
+    public void indexedFiltering_setItems_filterMatchesLabelSubstring() {
+        ComboBox<String> comboBox = new ComboBox<>();
+        comboBox.setIndexedFiltering(true);
+        comboBox.setItems("foo", "bar", "Foobar", "baz");
+
+        Assert.assertEquals(Arrays.asList("foo", "Foobar"),
+                fetchFiltered(comboBox, "fOo"));
+        Assert.assertEquals(Arrays.asList("bar", "Foobar"),
+                fetchFiltered(comboBox, "bar"));
+        Assert.assertEquals(Arrays.asList("bar", "Foobar", "baz"),
+                fetchFiltered(comboBox, "ba"));
+        Assert.assertEquals(Collections.emptyList(),
+                fetchFiltered(comboBox, "qux"));
+        Assert.assertEquals(4, fetchFiltered(comboBox, "").size());
+    }
+
+    @Test
+    public void indexedFiltering_refineAndShortenFilter_matchesAreCorrect() {
+        ComboBox<String> comboBox = new ComboBox<>();
+        comboBox.setIndexedFiltering(true);
+        comboBox.setItems("bar", "baz", "abba", "barn", "cab");
+
+        Assert.assertEquals(Arrays.asList("bar", "baz", "abba", "barn", "cab"),
+                fetchFiltered(comboBox, "b"));
+        Assert.assertEquals(Arrays.asList("bar", "baz", "abba", "barn"),
+                fetchFiltered(comboBox, "ba"));
+        Assert.assertEquals(Arrays.asList("bar", "barn"),
+                fetchFiltered(comboBox, "bar"));
+        Assert.assertEquals(Arrays.asList("barn"),
+                fetchFiltered(comboBox, "barn"));
+        // Shortened
+        Assert.assertEquals(Arrays.asList("bar", "barn"),
+                fetchFiltered(comboBox, "bar"));
+        // Replaced
+        Assert.assertEquals(Arrays.asList("cab"),
+                fetchFiltered(comboBox, "ca"));
+        // Refined in the front
+        Assert.assertEquals(Arrays.asList("abba"),
+                fetchFiltered(comboBox, "abb"));
+    }
+
+    @Test
+    public void indexedFiltering_changeItemLabelGenerator_indexIsRebuilt() {
+        ComboBox<String> comboBox = new ComboBox<>();
+        comboBox.setIndexedFiltering(true);
+        comboBox.setItems("foo", "bar");
+        Assert.assertEquals(Arrays.asList("foo"),
+                fetchFiltered(comboBox, "foo"));
+
+        comboBox.setItemLabelGenerator(item -> "item " + item);
+        Assert.assertEquals(Arrays.asList("foo", "bar"),
+                fetchFiltered(comboBox, "item"));
+    }
+
+    @Test
+    public void indexedFiltering_refreshAll_indexIsRebuilt() {
+        ComboBox<String> comboBox = new ComboBox<>();
+        comboBox.setIndexedFiltering(true);
+        List<String> items = new ArrayList<>(Arrays.asList("foo", "bar"));
+        comboBox.setItems(items);
+        Assert.assertEquals(Arrays.asList("bar"),
+                fetchFiltered(comboBox, "bar"));
+
+        items.add("another bar");
+        comboBox.getDataProvider().refreshAll();
+        Assert.assertEquals(Arrays.asList("bar", "another bar"),
+                fetchFiltered(comboBox, "bar"));
+    }
+
+    @Test
+    public void indexedFilteringDisabled_setItems_narrowingListDataProvider() {
+        ComboBox<String> comboBox = new ComboBox<>();
+        comboBox.setItems("foo", "bar");
+        Assert.assertFalse(comboBox.isIndexedFiltering());
+        Assert.assertEquals(NarrowingListDataProvider.class,
+                comboBox.getDataProvider().getClass());
+    }
+
+    @Test
+    public void setItems_refineAndShortenFilter_matchesAreCorrect() {
+        ComboBox<String> comboBox = new ComboBox<>();
+        comboBox.setItems("bar", "baz", "abba", "barn", "cab");
+
+        Assert.assertEquals(Arrays.asList("bar", "baz", "abba", "barn"),
+                fetchFiltered(comboBox, "BA"));
+        Assert.assertEquals(Arrays.asList("bar", "barn"),
+                fetchFiltered(comboBox, "bar"));
+        Assert.assertEquals(Arrays.asList("barn"),
+                fetchFiltered(comboBox, "barn"));
+        // Shortened
+        Assert.assertEquals(Arrays.asList("bar", "barn"),
+                fetchFiltered(comboBox, "bar"));
+        // Replaced
+        Assert.assertEquals(Arrays.asList("cab"),
+                fetchFiltered(comboBox, "ca"));
+    }
+
+    @Test
+    public void setItems_refineFilter_onlyPreviousMatchesAreChecked() {
+        ComboBox<String> comboBox = new ComboBox<>();
+        AtomicInteger labels = new AtomicInteger();
+        comboBox.setItems(IntStream.range(0, 100).mapToObj(i -> "a" + i)
+                .collect(Collectors.toList()));
+        comboBox.setItemLabelGenerator(item -> {
+            labels.incrementAndGet();
+            return item;
+        });
+        Assert.assertEquals(11, fetchFiltered(comboBox, "a1").size());
+
+        labels.set(0);
+        Assert.assertEquals(Arrays.asList("a12"),
+                fetchFiltered(comboBox, "a12"));
+        Assert.assertEquals(11, labels.get());
+    }
+
+    @Test
+    public void setItems_changeItemLabelGenerator_matchesAreDiscarded() {
+        ComboBox<String> comboBox = new ComboBox<>();
+        comboBox.setItems("foo", "bar");
+        Assert.assertEquals(Arrays.asList("foo"),
+                fetchFiltered(comboBox, "fo"));
+
+        comboBox.setItemLabelGenerator(item -> "food " + item);
+        Assert.assertEquals(Arrays.asList("foo", "bar"),
+                fetchFiltered(comboBox, "foo"));
+    }
+
+    @Test
+    public void refreshAll_dataProviderSizeIsNotQueriedByComboBox() {
+        AtomicInteger sizeQueries = new AtomicInteger();
+        ListDataProvider<String> dataProvider = new ListDataProvider<String>(
+                Arrays.asList("foo", "bar")) {
+            @Override
+            public int size(Query<String, SerializablePredicate<String>> query) {
+                sizeQueries.incrementAndGet();
+                return super.size(query);
+            }
+        };
+        ComboBox<String> comboBox = new ComboBox<>();
+        comboBox.setDataProvider(dataProvider);
+        dataProvider.refreshAll();
+        dataProvider.refreshAll();
+
+        // The size is only computed by the data communicator when flushing
+        Assert.assertEquals(0, sizeQueries.get());
+    }
+
+    @Test
+    public void setDataProviderWithoutSizeCallback_pageSizeChanged_estimateUsesNewPageSize() {
+        ComboBox<String> comboBox = new ComboBox<>(10);
+        comboBox.setDataProvider((filter, offset, limit) -> IntStream
+                .range(offset, offset + limit).mapToObj(String::valueOf));
+        comboBox.setPageSize(20);
+        comboBox.setOpened(true);
+
+        Assert.assertEquals(20,
+                comboBox.getDataProvider().size(new Query<>()));
+    }
+
+    @Test
+    public void setDataProviderWithoutSizeCallback_sizeIsEstimatedFromFetchedItems() {
+        AtomicInteger fetches = new AtomicInteger();
+        ComboBox<String> comboBox = new ComboBox<>(10);
+        comboBox.setDataProvider((filter, offset, limit) -> {
+            fetches.incrementAndGet();
+            return IntStream.range(offset, Math.min(offset + limit, 25))
+                    .mapToObj(String::valueOf);
+        });
+        comboBox.setOpened(true);
+
+        DataProvider<String, ?> dataProvider = comboBox.getDataProvider();
+        Assert.assertEquals("Initial estimate should be one page", 10,
+                dataProvider.size(new Query<>()));
+        Assert.assertEquals(0, fetches.get());
+
+        Assert.assertEquals(10, dataProvider
+                .fetch(new Query<>(0, 10, Collections.emptyList(), null, null))
+                .count());
+        Assert.assertEquals("A full page should extend the estimate", 20,
+                dataProvider.size(new Query<>()));
+
+        Assert.assertEquals(5, dataProvider
+                .fetch(new Query<>(20, 10, Collections.emptyList(), null, null))
+                .count());
+        Assert.assertEquals("A short page should make the size exact", 25,
+                dataProvider.size(new Query<>()));
+        Assert.assertEquals(2, fetches.get());
+    }
+
+    @Test
+    public void setDataProviderWithoutSizeCallback_estimateExceeded_clientIsReset()
+            throws Exception {
+        UI ui = new UI();
+        List<Integer> offsets = new ArrayList<>();
+        ComboBox<String> comboBox = createEstimatedComboBox(offsets);
+        ui.add(comboBox);
+        requestRange(comboBox, 0, 10, "");
+        dumpInvocations(ui);
+
+        // The client learned the extended estimate and scrolled further
+        requestRange(comboBox, 10, 10, "");
+        List<String> invocations = dumpInvocations(ui);
+
+        Assert.assertEquals("The page should only be fetched when requested again",
+                Arrays.asList(0), offsets);
+        Assert.assertNotEquals("The client should drop its pages", -1,
+                lastIndexOf(invocations, "$connector.reset"));
+    }
+
+    @Test
+    public void setDataProviderWithoutSizeCallback_estimateExceeded_firstPageItemCanBeSelected()
+            throws Exception {
+        UI ui = new UI();
+        ComboBox<String> comboBox = createEstimatedComboBox(new ArrayList<>());
+        ui.add(comboBox);
+        requestRange(comboBox, 0, 10, "");
+        dumpInvocations(ui);
+        requestRange(comboBox, 10, 10, "");
+        dumpInvocations(ui);
+
+        // The client requests the pages in view again after the reset
+        requestRange(comboBox, 0, 20, "");
+        String key = findSentKey(ui, "3");
+
+        comboBox.getElement().setProperty("value", key);
+        Assert.assertEquals("3", comboBox.getValue());
+    }
+
+    private ComboBox<String> createEstimatedComboBox(List<Integer> offsets) {
+        ComboBox<String> comboBox = new ComboBox<>(10);
+        comboBox.setDataProvider((filter, offset, limit) -> {
+            if (limit > 0) {
+                offsets.add(offset);
+            }
+            return IntStream.range(offset, Math.min(offset + limit, 25))
+                    .mapToObj(String::valueOf);
+        });
+        comboBox.setOpened(true);
+        return comboBox;
+    }
+
+    private String findSentKey(UI ui, String label) {
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        List<JsonArray> updates = ui.getInternals()
+                .dumpPendingJavaScriptInvocations().stream()
+                .map(invocation -> invocation.getInvocation())
+                .filter(invocation -> invocation.getExpression()
+                        .contains("$connector.applyUpdate"))
+                .map(invocation -> (JsonArray) invocation.getParameters()
+                        .get(1))
+                .collect(Collectors.toList());
+        for (JsonArray ranges : updates) {
+            for (int i = 0; i < ranges.length(); i++) {
+                JsonArray items = ranges.getObject(i).getArray("items");
+                for (int j = 0; j < items.length(); j++) {
+                    JsonObject item = items.getObject(j);
+                    if (label.equals(item.getString("label"))) {
+                        return item.getString("key");
+                    }
+                }
+            }
+        }
+        throw new AssertionError("No item labeled " + label + " was sent");
+    }
+
+    @Test
+    public void itemLabelCache_labelsAreGeneratedOnce() {
+        AtomicInteger generated = new AtomicInteger();
+        ComboBox<String> comboBox = new ComboBox<>();
+        comboBox.setItemLabelCacheSize(10);
+        comboBox.setItemLabelGenerator(item -> {
+            generated.incrementAndGet();
+            return item.toUpperCase();
+        });
+        comboBox.setItems("foo", "bar");
+
+        comboBox.getDataGenerator().generateData("foo", Json.createObject());
+        comboBox.getDataGenerator().generateData("foo", Json.createObject());
+        comboBox.getDataGenerator().generateData("bar", Json.createObject());
+
+        Assert.assertEquals(2, generated.get());
+        Assert.assertEquals(1, comboBox.getItemLabelCacheHitCount());
+        Assert.assertEquals(2, comboBox.getItemLabelCacheMissCount());
+    }
+
+    @Test
+    public void itemLabelCache_changeItemLabelGenerator_cacheIsCleared() {
+        ComboBox<String> comboBox = new ComboBox<>();
+        comboBox.setItemLabelCacheSize(10);
+        comboBox.setItems("foo");
+        JsonObject json = Json.createObject();
+        comboBox.getDataGenerator().generateData("foo", json);
+        Assert.assertEquals("foo", json.getString("label"));
+
+        comboBox.setItemLabelGenerator(item -> "bar");
+        comboBox.getDataGenerator().generateData("foo", json);
+        Assert.assertEquals("bar", json.getString("label"));
+    }
+
+    @Test
+    public void itemLabelCache_refreshItem_labelIsRegenerated() {
+        AtomicInteger generated = new AtomicInteger();
+        ComboBox<String> comboBox = new ComboBox<>();
+        comboBox.setItemLabelCacheSize(10);
+        comboBox.setItemLabelGenerator(item -> {
+            generated.incrementAndGet();
+            return item;
+        });
+        comboBox.setItems("foo", "bar");
+        comboBox.getDataGenerator().generateData("foo", Json.createObject());
+        comboBox.getDataGenerator().generateData("bar", Json.createObject());
+
+        comboBox.getDataProvider().refreshItem("foo");
+        comboBox.getDataGenerator().generateData("foo", Json.createObject());
+        comboBox.getDataGenerator().generateData("bar", Json.createObject());
+
+        Assert.assertEquals(3, generated.get());
+    }
+
+    @Test
+    public void itemLabelCache_evictsLeastRecentlyUsed() {
+        AtomicInteger generated = new AtomicInteger();
+        ComboBox<String> comboBox = new ComboBox<>();
+        comboBox.setItemLabelCacheSize(2);
+        comboBox.setItemLabelGenerator(item -> {
+            generated.incrementAndGet();
+            return item;
+        });
+        comboBox.setItems("foo", "bar", "baz");
+        comboBox.getDataGenerator().generateData("foo", Json.createObject());
+        comboBox.getDataGenerator().generateData("bar", Json.createObject());
+        comboBox.getDataGenerator().generateData("foo", Json.createObject());
+        comboBox.getDataGenerator().generateData("baz", Json.createObject());
+        Assert.assertEquals(3, generated.get());
+
+        // bar was evicted, foo was not
+        comboBox.getDataGenerator().generateData("foo", Json.createObject());
+        comboBox.getDataGenerator().generateData("bar", Json.createObject());
+        Assert.assertEquals(4, generated.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setItemLabelCacheSizeNegative_throws() {
+        ComboBox<String> comboBox = new ComboBox<>();
+        comboBox.setItemLabelCacheSize(-1);
+    }
+
+    @Test
+    public void setPrefetchPageCount_getPrefetchPageCount() {
+        ComboBox<String> comboBox = new ComboBox<>();
+        Assert.assertEquals("Prefetching should be disabled by default", 0,
+                comboBox.getPrefetchPageCount());
+        comboBox.setPrefetchPageCount(2);
+        Assert.assertEquals(2, comboBox.getPrefetchPageCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setPrefetchPageCountNegative_throws() {
+        ComboBox<String> comboBox = new ComboBox<>();
+        comboBox.setPrefetchPageCount(-1);
+    }
+
+    @Test
+    public void requestRange_selectedKeyIsOnlySentWhenChanged()
+            throws Exception {
+        UI ui = new UI();
+        ComboBox<String> comboBox = new ComboBox<>();
+        ui.add(comboBox);
+        comboBox.setItems("foo", "bar");
+        comboBox.setValue("foo");
+
+        requestRange(comboBox, "");
+        Assert.assertEquals(1, countSelectedKeyInvocations(ui));
+        requestRange(comboBox, "");
+        requestRange(comboBox, "f");
+        Assert.assertEquals(0, countSelectedKeyInvocations(ui));
+
+        comboBox.setValue("bar");
+        requestRange(comboBox, "");
+        Assert.assertEquals(1, countSelectedKeyInvocations(ui));
+
+        comboBox.getDataProvider().refreshAll();
+        requestRange(comboBox, "");
+        Assert.assertEquals("The key should be sent again after a reset", 1,
+                countSelectedKeyInvocations(ui));
+    }
+
+    @Test
+    public void setValueOnServer_selectedKeyIsSentWithoutRangeRequest()
+            throws Exception {
+        UI ui = new UI();
+        ComboBox<String> comboBox = new ComboBox<>();
+        ui.add(comboBox);
+        comboBox.setItems("foo", "bar");
+        comboBox.setValue("foo");
+        requestRange(comboBox, "");
+        Assert.assertEquals(1, countSelectedKeyInvocations(ui));
+
+        comboBox.setValue("bar");
+        Assert.assertEquals(
+                "The key of the new value should replace the previous one", 1,
+                countSelectedKeyInvocations(ui));
+        requestRange(comboBox, "");
+        Assert.assertEquals(0, countSelectedKeyInvocations(ui));
+
+        comboBox.setValue(null);
+        Assert.assertEquals(1, countSelectedKeyInvocations(ui));
+    }
+
+    @Test
+    public void setValueBeforeRangeRequest_selectedKeyIsSentOnRequest()
+            throws Exception {
+        UI ui = new UI();
+        ComboBox<String> comboBox = new ComboBox<>();
+        ui.add(comboBox);
+        comboBox.setItems("foo", "bar");
+        comboBox.setValue("foo");
+        comboBox.setValue("bar");
+        Assert.assertEquals(0, countSelectedKeyInvocations(ui));
+
+        requestRange(comboBox, "");
+        Assert.assertEquals(1, countSelectedKeyInvocations(ui));
+    }
+
+    @Test
+    public void setItemIdProvider_keysAreDerivedFromIds() {
+        ComboBox<String> comboBox = new ComboBox<>();
+        comboBox.setItemIdProvider(String::toUpperCase);
+        comboBox.setItems("foo", "bar");
+
+        JsonObject json = Json.createObject();
+        json.put("key", "1");
+        comboBox.getDataGenerator().generateData("foo", json);
+        Assert.assertEquals("FOO", json.getString("key"));
+
+        comboBox.setValue("bar");
+        Assert.assertEquals("BAR", comboBox.getElement().getProperty("value"));
+    }
+
+    @Test
+    public void setItemIdProvider_destroyAllData_onlyKeyOfValueIsKept() {
+        ComboBox<String> comboBox = new ComboBox<>();
+        comboBox.setItemIdProvider(String::toUpperCase);
+        comboBox.setItems("foo", "bar", "baz");
+        for (String item : Arrays.asList("foo", "bar", "baz")) {
+            comboBox.getDataGenerator().generateData(item,
+                    Json.createObject());
+        }
+        comboBox.setValue("bar");
+
+        comboBox.getDataGenerator().destroyAllData();
+
+        comboBox.getElement().setProperty("value", "BAR");
+        Assert.assertEquals("bar", comboBox.getValue());
+        comboBox.getElement().setProperty("value", "FOO");
+        Assert.assertNull("The key of an item sent earlier should be removed",
+                comboBox.getValue());
+    }
+
+    @Test
+    public void setItemIdProvider_setItems_keyOfValueIsStable() {
+        ComboBox<String> comboBox = new ComboBox<>();
+        comboBox.setItemIdProvider(String::toUpperCase);
+        comboBox.setItems("foo", "bar");
+        comboBox.setValue("bar");
+        String key = comboBox.getElement().getProperty("value");
+
+        comboBox.setItems("bar", "baz");
+        comboBox.setValue("bar");
+        Assert.assertEquals(key, comboBox.getElement().getProperty("value"));
+    }
+
+    @Test
+    public void clientSideFilterThreshold_defaultsToPageSize() {
+        ComboBox<String> comboBox = new ComboBox<>(20);
+        Assert.assertEquals(20, comboBox.getClientSideFilterThreshold());
+
+        comboBox.setClientSideFilterThreshold(2000);
+        Assert.assertEquals(2000, comboBox.getClientSideFilterThreshold());
+        Assert.assertEquals(20, comboBox.getPageSize());
+    }
+
+    @Test
+    public void clientSideFilterThreshold_itemsFit_allItemsAreSentAtOnce()
+            throws Exception {
+        List<Integer> limits = requestFirstPage(50);
+        Assert.assertTrue("All the items should be fetched",
+                limits.stream().anyMatch(limit -> limit >= 50));
+    }
+
+    @Test
+    public void clientSideFilterThreshold_itemsDontFit_onlyFirstPageIsSent()
+            throws Exception {
+        List<Integer> limits = requestFirstPage(150);
+        Assert.assertFalse(limits.isEmpty());
+        Assert.assertTrue("Only the requested page should be fetched",
+                limits.stream().allMatch(limit -> limit <= 20));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setClientSideFilterThresholdNegative_throws() {
+        ComboBox<String> comboBox = new ComboBox<>();
+        comboBox.setClientSideFilterThreshold(-1);
+    }
+
+    @Test
+    public void setItemDictionary_keysAreSharedAndItemsSentOnce() {
+        ComboBoxItemDictionary<String> dictionary = new ComboBoxItemDictionary<>();
+        ComboBox<String> first = new ComboBox<>();
+        ComboBox<String> second = new ComboBox<>();
+        first.setItems("foo", "bar");
+        second.setItems("bar", "foo");
+        first.setItemDictionary(dictionary);
+        second.setItemDictionary(dictionary);
+
+        JsonObject firstJson = Json.createObject();
+        first.getDataGenerator().generateData("foo", firstJson);
+        JsonObject secondJson = Json.createObject();
+        second.getDataGenerator().generateData("foo", secondJson);
+        Assert.assertEquals(firstJson.getString("key"),
+                secondJson.getString("key"));
+
+        Assert.assertSame(firstJson, dictionary.compact(firstJson));
+        JsonObject compacted = dictionary.compact(secondJson);
+        Assert.assertArrayEquals(new String[] { "key" }, compacted.keys());
+        Assert.assertEquals(secondJson.getString("key"),
+                compacted.getString("key"));
+    }
+
+    @Test
+    public void setItemDictionary_reattachedToSameUI_itemsAreSentAgain() {
+        UI ui = new UI();
+        ComboBoxItemDictionary<String> dictionary = new ComboBoxItemDictionary<>();
+        ComboBox<String> comboBox = new ComboBox<>();
+        comboBox.setItems("foo", "bar");
+        comboBox.setItemDictionary(dictionary);
+        ui.add(comboBox);
+
+        JsonObject json = Json.createObject();
+        comboBox.getDataGenerator().generateData("foo", json);
+        Assert.assertSame(json, dictionary.compact(json));
+        Assert.assertNotSame(json, dictionary.compact(json));
+
+        // As when a UI preserved on refresh is shown in a reloaded page
+        ui.remove(comboBox);
+        ui.add(comboBox);
+        Assert.assertSame(json, dictionary.compact(json));
+    }
+
+    @Test
+    public void setItemDictionary_valueIsResolvedFromSharedKey() {
+        ComboBoxItemDictionary<String> dictionary = new ComboBoxItemDictionary<>();
+        ComboBox<String> first = new ComboBox<>();
+        ComboBox<String> second = new ComboBox<>();
+        first.setItems("foo", "bar");
+        second.setItems("foo", "bar");
+        first.setItemDictionary(dictionary);
+        second.setItemDictionary(dictionary);
+
+        first.setValue("bar");
+        second.setValue("bar");
+        Assert.assertEquals(first.getElement().getProperty("value"),
+                second.getElement().getProperty("value"));
+    }
+
+    @Test
+    public void debounceTimes_defaultsAndSetters() {
+        ComboBox<String> comboBox = new ComboBox<>();
+        Assert.assertEquals(500, comboBox.getFilterDebounceTime());
+        Assert.assertEquals(200, comboBox.getRangeDebounceTime());
+        Assert.assertFalse(comboBox.isAdaptiveDebounce());
+
+        comboBox.setFilterDebounceTime(100);
+        comboBox.setRangeDebounceTime(0);
+        comboBox.setAdaptiveDebounce(true);
+        Assert.assertEquals(100, comboBox.getFilterDebounceTime());
+        Assert.assertEquals(0, comboBox.getRangeDebounceTime());
+        Assert.assertTrue(comboBox.isAdaptiveDebounce());
+    }
+
+    @Test
+    public void debounceTimes_changesAreSentToClient() {
+        UI ui = new UI();
+        ComboBox<String> comboBox = new ComboBox<>();
+        ui.add(comboBox);
+        collectPropertyChanges(ui);
+
+        comboBox.setFilterDebounceTime(100);
+        comboBox.setRangeDebounceTime(0);
+        comboBox.setAdaptiveDebounce(true);
+        Map<String, Object> changes = collectPropertyChanges(ui);
+        Assert.assertEquals(100,
+                ((Number) changes.get("_filterDebounceTime")).intValue());
+        Assert.assertEquals(0,
+                ((Number) changes.get("_rangeDebounceTime")).intValue());
+        Assert.assertEquals(Boolean.TRUE, changes.get("_adaptiveDebounce"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setFilterDebounceTimeNegative_throws() {
+        ComboBox<String> comboBox = new ComboBox<>();
+        comboBox.setFilterDebounceTime(-1);
+    }
+
+    @Test
+    public void cancellableFetchItems_tokenIsCancelledWhenFilterChanges()
+            throws Exception {
+        UI ui = new UI();
+        ComboBox<String> comboBox = new ComboBox<>();
+        ui.add(comboBox);
+        List<FetchCancellationToken> tokens = new ArrayList<>();
+        comboBox.setDataProvider((filter, offset, limit, token) -> {
+            tokens.add(token);
+            return Stream.of("foo", "bar").filter(item -> item.contains(filter))
+                    .skip(offset).limit(limit);
+        }, filter -> 1);
+
+        requestRange(comboBox, "f");
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        Assert.assertFalse(tokens.isEmpty());
+        FetchCancellationToken first = tokens.get(tokens.size() - 1);
+        Assert.assertFalse(first.isCancelled());
+
+        requestRange(comboBox, "f");
+        Assert.assertFalse(first.isCancelled());
+
+        requestRange(comboBox, "fo");
+        Assert.assertTrue(first.isCancelled());
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        Assert.assertFalse(tokens.get(tokens.size() - 1).isCancelled());
+    }
+
+    @Test
+    public void prefetchPolicy_eager_firstPageIsSentOnAttach() {
+        UI ui = new UI();
+        ComboBox<String> comboBox = new ComboBox<>();
+        List<Integer> fetchedOffsets = new ArrayList<>();
+        comboBox.setDataProvider((filter, offset, limit) -> {
+            fetchedOffsets.add(offset);
+            return Stream.of("foo", "bar").skip(offset).limit(limit);
+        }, filter -> 2);
+        comboBox.setPrefetchPolicy(ComboBox.PrefetchPolicy.EAGER);
+        ui.add(comboBox);
+
+        List<String> expressions = dumpInvocations(ui);
+        Assert.assertEquals(Collections.singletonList(0), fetchedOffsets);
+        int reset = lastIndexOf(expressions, "$connector.reset");
+        int update = lastIndexOf(expressions, "$connector.applyUpdate");
+        Assert.assertTrue("The prefetched items should be sent", update >= 0);
+        Assert.assertTrue(
+                "The client should be reset before the prefetched items are sent",
+                reset < update);
+    }
+
+    @Test
+    public void prefetchPolicy_eager_inMemoryItems_firstPageIsSentOnAttach() {
+        UI ui = new UI();
+        ComboBox<String> comboBox = new ComboBox<>();
+        comboBox.setItems("foo", "bar");
+        comboBox.setPrefetchPolicy(ComboBox.PrefetchPolicy.EAGER);
+        ui.add(comboBox);
+
+        Assert.assertTrue(countInvocations(ui, "$connector.applyUpdate") > 0);
+    }
+
+    @Test
+    public void prefetchPolicy_lazyOnOpen_nothingIsFetchedOnAttach() {
+        UI ui = new UI();
+        ComboBox<String> comboBox = new ComboBox<>();
+        List<Integer> fetchedOffsets = new ArrayList<>();
+        comboBox.setDataProvider((filter, offset, limit) -> {
+            fetchedOffsets.add(offset);
+            return Stream.of("foo", "bar").skip(offset).limit(limit);
+        }, filter -> 2);
+        Assert.assertEquals(ComboBox.PrefetchPolicy.LAZY_ON_OPEN,
+                comboBox.getPrefetchPolicy());
+        ui.add(comboBox);
+
+        Assert.assertEquals(0,
+                countInvocations(ui, "$connector.schedulePrefetch"));
+        Assert.assertTrue(fetchedOffsets.isEmpty());
+    }
+
+    @Test
+    public void fetchExecutor_filterChangedWhileFetching_staleItemsAreDiscarded()
+            throws Exception {
+        AccessQueueUI ui = new AccessQueueUI();
+        ComboBox<String> comboBox = new ComboBox<>();
+        List<Runnable> tasks = new ArrayList<>();
+        comboBox.setFetchExecutor(tasks::add);
+        comboBox.setDataProvider(
+                (filter, offset, limit) -> Stream.of(filter + "1", filter + "2")
+                        .skip(offset).limit(limit),
+                filter -> 2);
+        ui.add(comboBox);
+        dumpInvocations(ui);
+
+        requestRange(comboBox, "a");
+        requestRange(comboBox, "b");
+        Assert.assertEquals(2, tasks.size());
+
+        tasks.get(0).run();
+        ui.runAccessCommands();
+        Assert.assertEquals(
+                "The items for the outdated filter should be discarded", 0,
+                countInvocations(ui, "$connector.applyUpdate"));
+
+        tasks.get(1).run();
+        ui.runAccessCommands();
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        List<Serializable> parameters = ui.getInternals()
+                .dumpPendingJavaScriptInvocations().stream()
+                .map(invocation -> invocation.getInvocation())
+                .filter(invocation -> invocation.getExpression()
+                        .contains("$connector.applyUpdate"))
+                .map(invocation -> invocation.getParameters()
+                        .get(invocation.getParameters().size() - 1))
+                .collect(Collectors.toList());
+        Assert.assertEquals(Collections.singletonList("b"), parameters);
+    }
+
+    @Test
+    public void fetchExecutor_flushedWhileFetchingNewFilter_itemsOfOldFilterAreNotGenerated()
+            throws Exception {
+        AccessQueueUI ui = new AccessQueueUI();
+        ComboBox<String> comboBox = new ComboBox<>();
+        List<Runnable> tasks = new ArrayList<>();
+        comboBox.setFetchExecutor(tasks::add);
+        comboBox.setDataProvider(
+                (filter, offset, limit) -> Stream.of(filter + "1", filter + "2")
+                        .skip(offset).limit(limit),
+                filter -> 2);
+        AtomicInteger labels = new AtomicInteger();
+        comboBox.setItemLabelGenerator(item -> {
+            labels.incrementAndGet();
+            return item;
+        });
+        ui.add(comboBox);
+        requestRange(comboBox, "a");
+        tasks.get(0).run();
+        ui.runAccessCommands();
+        dumpInvocations(ui);
+        Assert.assertEquals(2, labels.get());
+
+        requestRange(comboBox, "b");
+        Method resetDataCommunicator = ComboBox.class
+                .getDeclaredMethod("resetDataCommunicator");
+        resetDataCommunicator.setAccessible(true);
+        resetDataCommunicator.invoke(comboBox);
+        dumpInvocations(ui);
+        Assert.assertEquals(
+                "The items of the superseded filter should not be generated",
+                2, labels.get());
+    }
+
+    @Test
+    public void fetchExecutor_fetchFails_failureIsThrownInUIAccess()
+            throws Exception {
+        AccessQueueUI ui = new AccessQueueUI();
+        ComboBox<String> comboBox = new ComboBox<>();
+        List<Runnable> tasks = new ArrayList<>();
+        comboBox.setFetchExecutor(tasks::add);
+        IllegalArgumentException failure = new IllegalArgumentException();
+        comboBox.setDataProvider((filter, offset, limit) -> {
+            throw failure;
+        }, filter -> 2);
+        ui.add(comboBox);
+
+        requestRange(comboBox, "a");
+        tasks.forEach(Runnable::run);
+        try {
+            ui.runAccessCommands();
+            Assert.fail("The failure should be thrown in UI.access");
+        } catch (IllegalStateException e) {
+            Assert.assertSame(failure, e.getCause().getCause());
+        }
+    }
+
+    @Test
+    public void fetchExecutor_estimatedSizeGrows_nextPageIsFetched()
+            throws Exception {
+        AccessQueueUI ui = new AccessQueueUI();
+        ComboBox<String> comboBox = new ComboBox<>();
+        List<Runnable> tasks = new ArrayList<>();
+        comboBox.setFetchExecutor(tasks::add);
+        comboBox.setDataProvider((String filter, int offset,
+                int limit) -> IntStream.range(offset, Math.min(offset + limit,
+                        200)).mapToObj(i -> filter + i));
+        ui.add(comboBox);
+        int pageSize = comboBox.getPageSize();
+
+        requestRange(comboBox, 0, pageSize, "a");
+        tasks.remove(0).run();
+        ui.runAccessCommands();
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+
+        requestRange(comboBox, pageSize, pageSize, "a");
+        Assert.assertEquals(
+                "The page beyond the first size estimate should be fetched",
+                1, tasks.size());
+    }
+
+    @Test
+    public void setPersistentCache_withoutItemIdProvider_throws() {
+        ComboBox<String> comboBox = new ComboBox<>();
+        expectIllegalStateException("item id provider");
+        comboBox.setPersistentCache("names", "1");
+    }
+
+    @Test
+    public void setPersistentCache_lazyDataProvider_throws() {
+        ComboBox<String> comboBox = new ComboBox<>();
+        comboBox.setItemIdProvider(String::toUpperCase);
+        comboBox.setDataProvider(
+                (filter, offset, limit) -> Stream.of("foo", "bar"),
+                filter -> 2);
+        expectIllegalStateException("in-memory items");
+        comboBox.setPersistentCache("names", "1");
+    }
+
+    @Test
+    public void setPersistentCache_setLazyDataProvider_cacheIsDisabled() {
+        ComboBox<String> comboBox = new ComboBox<>();
+        comboBox.setItemIdProvider(String::toUpperCase);
+        comboBox.setItems("foo", "bar");
+        comboBox.setPersistentCache("names", "1");
+
+        comboBox.setDataProvider(
+                (filter, offset, limit) -> Stream.of("foo", "bar"),
+                filter -> 2);
+        Assert.assertNull(comboBox.getPersistentCacheName());
+        Assert.assertNull(comboBox.getElement()
+                .getProperty("_persistentCacheName"));
+    }
+
+    @Test
+    public void setPersistentCache_itemOfEarlierSessionIsResolved()
+            throws Exception {
+        ComboBox<String> comboBox = new ComboBox<>();
+        comboBox.setItemIdProvider(String::toUpperCase);
+        comboBox.setItems("foo", "bar");
+        comboBox.setPersistentCache("names", "1");
+        Assert.assertEquals("names",
+                comboBox.getElement().getProperty("_persistentCacheName"));
+        Assert.assertEquals("1",
+                comboBox.getElement().getProperty("_dataVersion"));
+
+        Method presentationToModel = ComboBox.class.getDeclaredMethod(
+                "presentationToModel", ComboBox.class, String.class);
+        presentationToModel.setAccessible(true);
+        Assert.assertEquals("bar",
+                presentationToModel.invoke(null, comboBox, "BAR"));
+        Assert.assertNull(presentationToModel.invoke(null, comboBox, "BAZ"));
+
+        comboBox.setItemIdProvider(null);
+        Assert.assertNull(comboBox.getPersistentCacheName());
+        Assert.assertNull(comboBox.getDataVersion());
+    }
+
+    @Test
+    public void clientCacheSize_inItemsOrPages() {
+        ComboBox<String> comboBox = new ComboBox<>(20);
+        Assert.assertEquals(-1, comboBox.getClientCacheSize());
+
+        comboBox.setClientCacheSize(100);
+        Assert.assertEquals(100, comboBox.getClientCacheSize());
+        Assert.assertEquals(100, comboBox.getElement()
+                .getProperty("_pageCacheSize", -1));
+
+        comboBox.setClientCachePageCount(3);
+        Assert.assertEquals(60, comboBox.getClientCacheSize());
+        comboBox.setPageSize(50);
+        Assert.assertEquals(150, comboBox.getClientCacheSize());
+        Assert.assertEquals(150, comboBox.getElement()
+                .getProperty("_pageCacheSize", -1));
+    }
+
+    @Test
+    public void clientCachePageCount_pageSizeChanged_budgetIsSentToClient() {
+        UI ui = new UI();
+        ComboBox<String> comboBox = new ComboBox<>(20);
+        comboBox.setClientCachePageCount(3);
+        ui.add(comboBox);
+        Assert.assertEquals(60, ((Number) collectPropertyChanges(ui)
+                .get("_pageCacheSize")).intValue());
+
+        comboBox.setPageSize(50);
+        Assert.assertEquals(150, ((Number) collectPropertyChanges(ui)
+                .get("_pageCacheSize")).intValue());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setClientCacheSizeNegative_throws() {
+        ComboBox<String> comboBox = new ComboBox<>();
+        comboBox.setClientCacheSize(-1);
+    }
+
+    @Test
+    public void cacheFootprint_reportedByClient() throws Exception {
+        ComboBox<String> comboBox = new ComboBox<>();
+        Assert.assertFalse(comboBox.isCacheFootprintReporting());
+        comboBox.setCacheFootprintReporting(true);
+        Assert.assertTrue(comboBox.isCacheFootprintReporting());
+        Assert.assertEquals(-1, comboBox.getClientCachedItemCount());
+
+        Method reportCacheFootprint = ComboBox.class.getDeclaredMethod(
+                "reportCacheFootprint", int.class, int.class);
+        reportCacheFootprint.setAccessible(true);
+        reportCacheFootprint.invoke(comboBox, 120, 3);
+        Assert.assertEquals(120, comboBox.getClientCachedItemCount());
+        Assert.assertEquals(3, comboBox.getClientCachedPageCount());
+    }
+
+    @Test
+    public void cacheFootprintReporting_changeIsSentToClient() {
+        UI ui = new UI();
+        ComboBox<String> comboBox = new ComboBox<>();
+        ui.add(comboBox);
+        collectPropertyChanges(ui);
+
+        comboBox.setCacheFootprintReporting(true);
+        Assert.assertEquals(Boolean.TRUE,
+                collectPropertyChanges(ui).get("_reportCacheFootprint"));
+    }
+
+    @Test
+    public void prefetchPageCount_followingPagesAreSentWithRequestedRange()
+            throws Exception {
+        UI ui = new UI();
+        List<String> fetches = new ArrayList<>();
+        ComboBox<String> comboBox = new ComboBox<>(10);
+        comboBox.setDataProvider((filter, offset, limit) -> {
+            if (limit > 0) {
+                fetches.add(offset + "+" + limit);
+            }
+            return IntStream.range(offset, Math.min(offset + limit, 100))
+                    .mapToObj(String::valueOf);
+        }, filter -> 100);
+        comboBox.setPrefetchPageCount(2);
+        ui.add(comboBox);
+
+        requestRange(comboBox, 0, 10, "a");
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        Assert.assertEquals(Arrays.asList("0+30"), fetches);
+
+        // The prefetched pages have been sent, only the new one is fetched
+        requestRange(comboBox, 10, 10, "a");
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        Assert.assertEquals(Arrays.asList("0+30", "30+10"), fetches);
+    }
+
+    private Map<String, Object> collectPropertyChanges(UI ui) {
+        Map<String, Object> changes = new HashMap<>();
+        ui.getInternals().getStateTree().collectChanges(change -> {
+            if (change instanceof MapPutChange) {
+                MapPutChange put = (MapPutChange) change;
+                changes.put(put.getKey(), put.getValue());
+            }
+        });
+        return changes;
+    }
+
+    private List<String> fetchFiltered(ComboBox<String> comboBox,
+            String filterText) {
+        LabelFilteringListDataProvider<String> dataProvider = (LabelFilteringListDataProvider<String>) comboBox
+                .getDataProvider();
+        Query<String, SerializablePredicate<String>> query = new Query<>(
+                dataProvider.createFilter(filterText));
+        Assert.assertEquals(dataProvider.size(query),
+                dataProvider.fetch(query).count());
+        return dataProvider.fetch(query).collect(Collectors.toList());
+    }
+
     private void assertItem(TestComboBox comboBox, int index, String caption) {
         String value1 = comboBox.items.get(index);
         Assert.assertEquals(caption, value1);
@@ -348,4 +1355,70 @@ public class ComboBoxTest {
         thrown.expect(IllegalStateException.class);
         thrown.expectMessage(expectedMessage);
     }
+
+    private List<Integer> requestFirstPage(int itemCount) throws Exception {
+        UI ui = new UI();
+        ComboBox<String> comboBox = new ComboBox<>(20);
+        comboBox.setClientSideFilterThreshold(100);
+        List<Integer> limits = new ArrayList<>();
+        comboBox.setDataProvider(new ListDataProvider<String>(IntStream
+                .range(0, itemCount).mapToObj(String::valueOf)
+                .collect(Collectors.toList())) {
+            @Override
+            public Stream<String> fetch(
+                    Query<String, SerializablePredicate<String>> query) {
+                limits.add(query.getLimit());
+                return super.fetch(query);
+            }
+        });
+        ui.add(comboBox);
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        limits.clear();
+
+        requestRange(comboBox, "");
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        return limits;
+    }
+
+    private void requestRange(ComboBox<String> comboBox, String filter)
+            throws Exception {
+        requestRange(comboBox, 0, comboBox.getPageSize(), filter);
+    }
+
+    private void requestRange(ComboBox<String> comboBox, int start,
+            int length, String filter) throws Exception {
+        Method setRequestedRange = ComboBox.class.getDeclaredMethod(
+                "setRequestedRange", int.class, int.class, String.class);
+        setRequestedRange.setAccessible(true);
+        setRequestedRange.invoke(comboBox, start, length, filter);
+    }
+
+    private long countSelectedKeyInvocations(UI ui) {
+        return countInvocations(ui, "_selectedKey");
+    }
+
+    private List<String> dumpInvocations(UI ui) {
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        return ui.getInternals().dumpPendingJavaScriptInvocations().stream()
+                .map(invocation -> invocation.getInvocation().getExpression())
+                .collect(Collectors.toList());
+    }
+
+    private static int lastIndexOf(List<String> expressions,
+            String expression) {
+        for (int i = expressions.size() - 1; i >= 0; i--) {
+            if (expressions.get(i).contains(expression)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private long countInvocations(UI ui, String expression) {
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        return ui.getInternals().dumpPendingJavaScriptInvocations().stream()
+                .filter(invocation -> invocation.getInvocation()
+                        .getExpression().contains(expression))
+                .count();
+    }
 }